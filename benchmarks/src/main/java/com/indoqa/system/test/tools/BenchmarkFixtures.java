@@ -0,0 +1,110 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Creates the tiny jar and the tiny WAR the benchmarks start. Both are written once per benchmark JVM into a temp directory.
+ */
+public final class BenchmarkFixtures {
+
+    public static final String HTTP_PORT = "http";
+    public static final String CHECK_ADDRESS = "http://localhost:" + PortReservation.placeholder(HTTP_PORT) + "/";
+
+    private static final String WEB_XML = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<web-app xmlns=\"http://xmlns.jcp.org/xml/ns/javaee\" version=\"3.1\" />\n";
+
+    private static Path tinyJar;
+    private static Path tinyWar;
+
+    private BenchmarkFixtures() {
+        // hide utility class constructor
+    }
+
+    /**
+     * @return A runnable jar with {@link TinyServer} as main class.
+     */
+    public static synchronized Path getTinyJar() throws IOException {
+        if (tinyJar == null) {
+            tinyJar = Files.createTempFile("tiny-", ".jar");
+
+            Manifest manifest = new Manifest();
+            manifest.getMainAttributes().put(Attributes.Name.MANIFEST_VERSION, "1.0");
+            manifest.getMainAttributes().put(Attributes.Name.MAIN_CLASS, TinyServer.class.getName());
+
+            String classFile = TinyServer.class.getName().replace('.', '/') + ".class";
+            try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(tinyJar), manifest);
+                    InputStream classInputStream = TinyServer.class.getClassLoader().getResourceAsStream(classFile)) {
+                jarOutputStream.putNextEntry(new JarEntry(classFile));
+                IOUtils.copy(classInputStream, jarOutputStream);
+                jarOutputStream.closeEntry();
+            }
+        }
+
+        return tinyJar;
+    }
+
+    /**
+     * @return A WAR archive with a <code>web.xml</code> and a static <code>index.html</code>.
+     */
+    public static synchronized Path getTinyWar() throws IOException {
+        if (tinyWar == null) {
+            tinyWar = Files.createTempFile("tiny-", ".war");
+
+            try (JarOutputStream jarOutputStream = new JarOutputStream(Files.newOutputStream(tinyWar))) {
+                jarOutputStream.putNextEntry(new JarEntry("WEB-INF/web.xml"));
+                jarOutputStream.write(WEB_XML.getBytes(UTF_8));
+                jarOutputStream.closeEntry();
+
+                jarOutputStream.putNextEntry(new JarEntry("index.html"));
+                jarOutputStream.write("<html><body>ok</body></html>".getBytes(UTF_8));
+                jarOutputStream.closeEntry();
+            }
+        }
+
+        return tinyWar;
+    }
+
+    public static JarRunnerBuilder tinyJarRunner() throws IOException {
+        return new JarRunnerBuilder(getTinyJar())
+            .reservePort(HTTP_PORT)
+            .addArgument(PortReservation.placeholder(HTTP_PORT))
+            .setCheckAdress(CHECK_ADDRESS)
+            .disableMetricsReport()
+            .disableOutputForwarding();
+    }
+
+    public static WarRunnerBuilder tinyWarRunner() throws IOException {
+        return new WarRunnerBuilder(getTinyWar())
+            .useFreeHttpPort()
+            .setCheckAdress(CHECK_ADDRESS + "index.html")
+            .disableMetricsReport()
+            .disableOutputForwarding();
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the lifecycle of a {@link JarRunner} starting the tiny jar: {@link JarRunner#run()} until the process is ready and
+ * {@link JarRunner#after()} until the process has exited, with and without the additional process discovery via jps.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class JarRunnerLifecycleBenchmark {
+
+    private static JarRunnerBuilder createBuilder(boolean jpsProcessDiscovery) throws IOException {
+        JarRunnerBuilder builder = BenchmarkFixtures.tinyJarRunner();
+        if (jpsProcessDiscovery) {
+            builder.enableJpsProcessDiscovery();
+        }
+        return builder;
+    }
+
+    @Benchmark
+    public void afterToExited(RunningRunner state) {
+        state.runner.after();
+    }
+
+    @Benchmark
+    public JarRunner runToReady(ConfiguredRunner state) {
+        state.runner.run();
+        return state.runner;
+    }
+
+    /**
+     * A runner that has not been started yet when the benchmark method is invoked.
+     */
+    @State(Scope.Thread)
+    public static class ConfiguredRunner {
+
+        @Param({"false", "true"})
+        public boolean jpsProcessDiscovery;
+
+        private JarRunner runner;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws IOException {
+            this.runner = createBuilder(this.jpsProcessDiscovery).getJarRunner();
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() {
+            this.runner.after();
+        }
+    }
+
+    /**
+     * A runner whose process is already ready when the benchmark method is invoked.
+     */
+    @State(Scope.Thread)
+    public static class RunningRunner {
+
+        @Param({"false", "true"})
+        public boolean jpsProcessDiscovery;
+
+        private JarRunner runner;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws IOException {
+            this.runner = createBuilder(this.jpsProcessDiscovery).build();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the first call of <code>WarRunner.getJettyRunnerPath()</code> in a fresh JVM, which hashes the bundled
+ * jetty-runner.jar and extracts it into the {@link CacheDirectory} unless it is there already. The path is resolved once per
+ * JVM, so every fork contributes exactly one measurement. The <code>cached</code> variant uses the default cache directory,
+ * which is populated by the first fork if no earlier build has done so.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(10)
+@State(Scope.Benchmark)
+public class JettyRunnerExtractionBenchmark {
+
+    @Param({"cold", "cached"})
+    public String cache;
+
+    private Path war;
+
+    @Benchmark
+    public WarRunner resolveJettyRunner() {
+        return new WarRunner(this.war);
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("cold".equals(this.cache)) {
+            Path cacheDir = Files.createTempDirectory("system-test-tools-cache");
+            System.setProperty(CacheDirectory.SYS_PROP_CACHE_DIR, cacheDir.toString());
+        }
+        this.war = BenchmarkFixtures.getTinyWar();
+    }
+}
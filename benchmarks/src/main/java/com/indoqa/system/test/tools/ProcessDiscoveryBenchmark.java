@@ -0,0 +1,74 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.io.File.separator;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.zeroturnaround.exec.ProcessExecutor;
+
+/**
+ * Compares the two ways a {@link JarRunner} finds the processes it has to clean up: a lookup in the {@link ProcessRegistry}
+ * and forking <code>jps</code>.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProcessDiscoveryBenchmark {
+
+    private static final String PROCESS_KEY = "process-key_benchmark";
+
+    @Benchmark
+    public String jps() throws IOException, InterruptedException, TimeoutException {
+        // the JDK running the benchmark, JAVA_HOME is not necessarily set
+        String jpsCommand = System.getProperty("java.home") + separator + "bin" + separator + "jps";
+        return new ProcessExecutor().command(jpsCommand, "-mlvV").readOutput(true).execute().outputUTF8();
+    }
+
+    @Benchmark
+    public List<ProcessHandle> registryLookup() throws IOException {
+        return ProcessRegistry.lookup(PROCESS_KEY);
+    }
+
+    @Setup
+    public void setUp() throws IOException {
+        ProcessRegistry.register(PROCESS_KEY, ProcessHandle.current());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        ProcessRegistry.unregister(PROCESS_KEY);
+    }
+}
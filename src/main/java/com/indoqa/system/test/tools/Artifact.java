@@ -0,0 +1,153 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.jar.Attributes;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A jar or WAR archive found by the {@link ArtifactIndex}. The manifest is only read when the main class or the version is
+ * requested for the first time.
+ */
+public final class Artifact {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Artifact.class);
+
+    private static final Pattern VERSION_IN_FILE_NAME = Pattern
+        .compile("-(\\d+(?:\\.\\d+)*(?:-SNAPSHOT|-(?:alpha|beta|rc|m)\\.?\\d*)?)(?:-|\\.jar$|\\.war$)", Pattern.CASE_INSENSITIVE);
+    private static final String START_CLASS = "Start-Class";
+
+    private final Path path;
+    private final int depth;
+    private final long lastModified;
+
+    private boolean manifestRead;
+    private String mainClass;
+    private String startClass;
+    private ArtifactVersion version;
+
+    protected Artifact(Path path, int depth, long lastModified) {
+        this.path = path;
+        this.depth = depth;
+        this.lastModified = lastModified;
+    }
+
+    private static String getVersionFromPath(Path path) {
+        String fileName = path.getFileName().toString();
+
+        // the layout of a Maven repository: <artifactId>/<version>/<artifactId>-<version>[-<classifier>].jar
+        Path versionDir = path.getParent();
+        if (versionDir != null && versionDir.getParent() != null && versionDir.getParent().getFileName() != null) {
+            String artifactId = versionDir.getParent().getFileName().toString();
+            String version = versionDir.getFileName().toString();
+            if (fileName.startsWith(artifactId + "-" + version)) {
+                return version;
+            }
+        }
+
+        Matcher matcher = VERSION_IN_FILE_NAME.matcher(fileName);
+        if (matcher.find()) {
+            return matcher.group(1);
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The number of directories between the root of the index and this artifact, 1 for artifacts directly in the root.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    public String getFileName() {
+        return this.path.getFileName().toString();
+    }
+
+    public long getLastModified() {
+        return this.lastModified;
+    }
+
+    /**
+     * @return The <code>Main-Class</code> of the manifest or <code>null</code> if there is none.
+     */
+    public synchronized String getMainClass() {
+        this.readManifest();
+        return this.mainClass;
+    }
+
+    public Path getPath() {
+        return this.path;
+    }
+
+    /**
+     * @return The <code>Start-Class</code> of the manifest of a Spring Boot archive or <code>null</code> if there is none.
+     */
+    public synchronized String getStartClass() {
+        this.readManifest();
+        return this.startClass;
+    }
+
+    /**
+     * @return The <code>Implementation-Version</code> of the manifest, the version of the Maven repository layout or the version
+     *         in the file name, or <code>null</code> if none of them is available.
+     */
+    public synchronized ArtifactVersion getVersion() {
+        this.readManifest();
+        return this.version;
+    }
+
+    @Override
+    public String toString() {
+        return this.path.toString();
+    }
+
+    private void readManifest() {
+        if (this.manifestRead) {
+            return;
+        }
+        this.manifestRead = true;
+
+        String versionValue = null;
+        try (JarFile jarFile = new JarFile(this.path.toFile(), false)) {
+            Manifest manifest = jarFile.getManifest();
+            if (manifest != null) {
+                Attributes attributes = manifest.getMainAttributes();
+                this.mainClass = attributes.getValue(Attributes.Name.MAIN_CLASS);
+                this.startClass = attributes.getValue(START_CLASS);
+                versionValue = attributes.getValue(Attributes.Name.IMPLEMENTATION_VERSION);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not read the manifest of {}: {}", this.path, e.getMessage());
+        }
+
+        if (versionValue == null) {
+            versionValue = getVersionFromPath(this.path);
+        }
+        if (versionValue != null) {
+            this.version = ArtifactVersion.parse(versionValue);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.FileVisitResult.SKIP_SUBTREE;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * All jar and WAR archives below a root directory. The directory tree is walked only once per JVM and root; sources, compiled
+ * classes and hidden directories are skipped. Use {@link #invalidate(Path)} if archives were created or removed since.
+ */
+public final class ArtifactIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ArtifactIndex.class);
+
+    private static final Map<Path, ArtifactIndex> INDEXES = new ConcurrentHashMap<>();
+    private static final Set<String> SKIPPED_DIRS = new HashSet<>(
+        Arrays.asList("src", "classes", "test-classes", "generated-sources", "generated-test-sources", "node_modules"));
+
+    private final Path root;
+    private List<Artifact> artifacts;
+
+    private ArtifactIndex(Path root) {
+        this.root = root;
+    }
+
+    public static ArtifactIndex get(Path root) {
+        return INDEXES.computeIfAbsent(root.toAbsolutePath().normalize(), ArtifactIndex::new);
+    }
+
+    /**
+     * Discard the index of the root, so that the next call of {@link #get(Path)} walks the directory tree again.
+     */
+    public static void invalidate(Path root) {
+        INDEXES.remove(root.toAbsolutePath().normalize());
+    }
+
+    private static boolean isArchive(Path file) {
+        String fileName = file.getFileName().toString();
+        return fileName.endsWith(".jar") || fileName.endsWith(".war");
+    }
+
+    /**
+     * @return All archives below the root, or an empty list if the root does not exist.
+     */
+    public synchronized List<Artifact> getArtifacts() throws IOException {
+        if (this.artifacts == null) {
+            this.artifacts = Collections.unmodifiableList(this.walk());
+        }
+        return this.artifacts;
+    }
+
+    public Path getRoot() {
+        return this.root;
+    }
+
+    private List<Artifact> walk() throws IOException {
+        List<Artifact> result = new ArrayList<>();
+        if (!Files.isDirectory(this.root)) {
+            LOGGER.debug("The artifact root {} does not exist.", this.root);
+            return result;
+        }
+
+        long start = System.nanoTime();
+        Files.walkFileTree(this.root, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                if (dir.equals(ArtifactIndex.this.root)) {
+                    return CONTINUE;
+                }
+
+                String dirName = dir.getFileName().toString();
+                if (dirName.startsWith(".") || SKIPPED_DIRS.contains(dirName)) {
+                    return SKIP_SUBTREE;
+                }
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.isRegularFile() && isArchive(file)) {
+                    int depth = ArtifactIndex.this.root.relativize(file).getNameCount();
+                    result.add(new Artifact(file, depth, attrs.lastModifiedTime().toMillis()));
+                }
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                // unreadable directories must not break the whole index
+                return CONTINUE;
+            }
+        });
+
+        LOGGER.debug(
+            "Indexed {} archive(s) below {} in {} ms.",
+            result.size(),
+            this.root,
+            (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.util.stream.Collectors.joining;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Resolve a Java runnable from one or more root directories, e.g. the <code>target</code> directories of sibling modules and the
+ * local Maven repository. The roots are indexed once per JVM by the {@link ArtifactIndex}. If nothing matches or the matching
+ * archive has been removed in the meantime, the roots are indexed again once.
+ *
+ * <pre>
+ * Path runnable = new ArtifactResolver(Paths.get("../service/target"), Paths.get(System.getProperty("user.home"), ".m2"))
+ *     .matching("service-*-runnable.jar")
+ *     .withVersion("[1.2,2.0)")
+ *     .newest()
+ *     .resolve();
+ * </pre>
+ */
+public class ArtifactResolver {
+
+    private static final Comparator<Artifact> NEWEST_FIRST = Comparator
+        .comparing(Artifact::getVersion, Comparator.nullsFirst(Comparator.<ArtifactVersion> naturalOrder()))
+        .thenComparingLong(Artifact::getLastModified)
+        .reversed();
+
+    private final List<Path> roots;
+    private final List<Predicate<Artifact>> filters = new ArrayList<>();
+    private final List<String> description = new ArrayList<>();
+    private int maxDepth = Integer.MAX_VALUE;
+    private boolean newest;
+
+    public ArtifactResolver(Path... roots) {
+        if (roots == null || roots.length == 0 || Arrays.stream(roots).anyMatch(Objects::isNull)) {
+            fail("The artifact resolver needs at least one root directory.");
+        }
+
+        this.roots = Arrays.asList(roots);
+    }
+
+    private static void requireNonNull(Object object, String message) {
+        if (object == null) {
+            fail(message);
+        }
+    }
+
+    /**
+     * Only consider archives whose file name matches the glob pattern, e.g. <code>*-runnable.jar</code>.
+     */
+    public ArtifactResolver matching(String glob) {
+        requireNonNull(glob, "The glob pattern must not be null.");
+
+        PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+        return this.addFilter("file name " + glob, artifact -> matcher.matches(artifact.getPath().getFileName()));
+    }
+
+    /**
+     * Only consider archives whose file name is accepted by the predicate, e.g. {@link JarRunnerUtils#endsWithRunnableJar()}.
+     */
+    public ArtifactResolver matching(Predicate<Path> fileNamePredicate) {
+        requireNonNull(fileNamePredicate, "The file name predicate must not be null.");
+
+        return this.addFilter("file name predicate", artifact -> fileNamePredicate.test(artifact.getPath().getFileName()));
+    }
+
+    /**
+     * Resolve the archive with the highest version, or the most recently modified one among equal versions, instead of failing
+     * if several archives match.
+     */
+    public ArtifactResolver newest() {
+        this.newest = true;
+        return this;
+    }
+
+    public Path resolve() {
+        List<Artifact> candidates = this.search();
+
+        if (candidates.isEmpty() || !Files.exists(this.select(candidates).getPath())) {
+            this.roots.forEach(ArtifactIndex::invalidate);
+            candidates = this.search();
+        }
+
+        if (candidates.isEmpty()) {
+            fail("Cannot find an archive with " + this.describe() + " in " + this.roots + ".");
+        }
+
+        return this.select(candidates).getPath();
+    }
+
+    /**
+     * Only consider archives up to the given number of directories below a root, 1 being the root itself.
+     */
+    public ArtifactResolver setMaxDepth(int maxDepth) {
+        if (maxDepth < 1) {
+            fail("The maximum depth must be at least 1.");
+        }
+
+        this.maxDepth = maxDepth;
+        return this;
+    }
+
+    /**
+     * Only consider archives with the given <code>Main-Class</code> or, for Spring Boot archives, <code>Start-Class</code>.
+     */
+    public ArtifactResolver withMainClass(String mainClass) {
+        requireNonNull(mainClass, "The main class must not be null.");
+
+        return this.addFilter(
+            "main class " + mainClass,
+            artifact -> mainClass.equals(artifact.getMainClass()) || mainClass.equals(artifact.getStartClass()));
+    }
+
+    /**
+     * Only consider archives with a version in the range, see {@link VersionRange} for the notation.
+     */
+    public ArtifactResolver withVersion(String versionRange) {
+        requireNonNull(versionRange, "The version range must not be null.");
+
+        VersionRange range = VersionRange.parse(versionRange);
+        return this.addFilter(
+            "version " + range,
+            artifact -> artifact.getVersion() != null && range.contains(artifact.getVersion()));
+    }
+
+    private ArtifactResolver addFilter(String filterDescription, Predicate<Artifact> filter) {
+        this.description.add(filterDescription);
+        this.filters.add(filter);
+        return this;
+    }
+
+    private String describe() {
+        if (this.description.isEmpty()) {
+            return "any name";
+        }
+        return String.join(", ", this.description);
+    }
+
+    private List<Artifact> search() {
+        List<Artifact> result = new ArrayList<>();
+
+        for (Path eachRoot : this.roots) {
+            try {
+                ArtifactIndex
+                    .get(eachRoot)
+                    .getArtifacts()
+                    .stream()
+                    .filter(artifact -> artifact.getDepth() <= this.maxDepth)
+                    .filter(artifact -> this.filters.stream().allMatch(filter -> filter.test(artifact)))
+                    .forEach(result::add);
+            } catch (IOException e) {
+                fail("Error while searching archives in '" + eachRoot.toAbsolutePath() + "': " + e.getMessage());
+            }
+        }
+
+        return result;
+    }
+
+    private Artifact select(List<Artifact> candidates) {
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        if (!this.newest) {
+            fail(
+                "There is more than one archive with " + this.describe() + ": "
+                    + candidates.stream().map(Artifact::toString).collect(joining(", ")));
+        }
+
+        return candidates.stream().min(NEWEST_FIRST).get();
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A version in the usual Maven notation like <code>1.2.3</code> or <code>2.0-SNAPSHOT</code>. Numeric parts are compared as
+ * numbers, missing numeric parts count as 0 and a version with a qualifier is older than the same version without one.
+ */
+public final class ArtifactVersion implements Comparable<ArtifactVersion> {
+
+    private final String value;
+    private final List<Object> parts = new ArrayList<>();
+
+    private ArtifactVersion(String value) {
+        this.value = value;
+
+        for (String eachPart : value.toLowerCase(Locale.ROOT).split("[.\\-_]")) {
+            if (eachPart.isEmpty()) {
+                continue;
+            }
+
+            if (eachPart.chars().allMatch(Character::isDigit)) {
+                this.parts.add(Long.valueOf(eachPart.length() > 18 ? eachPart.substring(0, 18) : eachPart));
+            } else {
+                this.parts.add(eachPart);
+            }
+        }
+    }
+
+    public static ArtifactVersion parse(String value) {
+        return new ArtifactVersion(value.trim());
+    }
+
+    private static int compareParts(Object part, Object otherPart) {
+        if (part instanceof Long && otherPart instanceof Long) {
+            return ((Long) part).compareTo((Long) otherPart);
+        }
+
+        // a number is newer than a qualifier, e.g. 1.0.1 > 1.0-rc1
+        if (part instanceof Long) {
+            return 1;
+        }
+        if (otherPart instanceof Long) {
+            return -1;
+        }
+
+        return ((String) part).compareTo((String) otherPart);
+    }
+
+    private static int compareToMissing(Object part) {
+        if (part instanceof Long) {
+            return Long.signum((Long) part);
+        }
+
+        // a qualifier is older than the release, e.g. 1.0-SNAPSHOT < 1.0
+        return -1;
+    }
+
+    @Override
+    public int compareTo(ArtifactVersion other) {
+        int length = Math.max(this.parts.size(), other.parts.size());
+
+        for (int i = 0; i < length; i++) {
+            int result;
+            if (i >= this.parts.size()) {
+                result = -compareToMissing(other.parts.get(i));
+            } else if (i >= other.parts.size()) {
+                result = compareToMissing(this.parts.get(i));
+            } else {
+                result = compareParts(this.parts.get(i), other.parts.get(i));
+            }
+
+            if (result != 0) {
+                return result;
+            }
+        }
+
+        return 0;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof ArtifactVersion && this.compareTo((ArtifactVersion) obj) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        // trailing zeros do not change the version, e.g. 1.0 equals 1
+        int length = this.parts.size();
+        while (length > 0 && Long.valueOf(0).equals(this.parts.get(length - 1))) {
+            length--;
+        }
+
+        int result = 1;
+        for (int i = 0; i < length; i++) {
+            result = 31 * result + this.parts.get(i).hashCode();
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return this.value;
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+@FunctionalInterface
+public interface Backoff {
+
+    static Backoff exponential(long initialMillis, long maxMillis) {
+        return new ExponentialBackoff(initialMillis, maxMillis);
+    }
+
+    static Backoff fixed(long millis) {
+        return attempt -> millis;
+    }
+
+    /**
+     * @param attempt The number of the check attempt that has just failed, starting with 1.
+     * @return The time in milliseconds to wait before the next check attempt.
+     */
+    long nextDelay(int attempt);
+}
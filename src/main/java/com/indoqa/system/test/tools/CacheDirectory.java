@@ -0,0 +1,80 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * A stable directory that survives JVM restarts and is shared by all builds of a user. The location can be changed with the
+ * system property {@value #SYS_PROP_CACHE_DIR}.
+ */
+public final class CacheDirectory {
+
+    public static final String SYS_PROP_CACHE_DIR = "indoqa.system-test-tools.cache-dir";
+
+    private CacheDirectory() {
+        // hide utility class constructor
+    }
+
+    public static Path get(String name) throws IOException {
+        String configuredDir = System.getProperty(SYS_PROP_CACHE_DIR);
+
+        Path baseDir;
+        if (StringUtils.isBlank(configuredDir)) {
+            baseDir = Paths.get(System.getProperty("user.home"), ".cache", "indoqa-system-test-tools");
+        } else {
+            baseDir = Paths.get(configuredDir);
+        }
+
+        return Files.createDirectories(baseDir.resolve(name));
+    }
+
+    /**
+     * Write the content of the input stream to the target file unless it already exists. The content is written to a temporary
+     * file in the same directory first and then moved atomically, so concurrent processes either see the complete file or no
+     * file at all.
+     */
+    public static Path store(InputStream inputStream, Path target) throws IOException {
+        if (Files.exists(target)) {
+            return target;
+        }
+
+        Path tempFile = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.copy(inputStream, tempFile, REPLACE_EXISTING);
+            Files.move(tempFile, target, ATOMIC_MOVE);
+        } catch (IOException e) {
+            // another process might have been faster and the target is already in use
+            if (!Files.exists(target)) {
+                throw e;
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+
+        return target;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+
+/**
+ * A class loader that prefers its own classes over the ones of the parent class loader. Only the classes of the Java platform
+ * are always loaded by the parent.
+ */
+public class ChildFirstClassLoader extends URLClassLoader {
+
+    private static final String[] PARENT_FIRST_PREFIXES = {"java.", "javax.", "jdk.", "sun.", "com.sun.", "org.w3c.dom.",
+        "org.xml.sax."};
+
+    static {
+        ClassLoader.registerAsParallelCapable();
+    }
+
+    public ChildFirstClassLoader(URL[] urls, ClassLoader parent) {
+        super(urls, parent);
+    }
+
+    private static boolean isParentFirst(String name) {
+        for (String eachPrefix : PARENT_FIRST_PREFIXES) {
+            if (name.startsWith(eachPrefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Define a copy of the given class in this class loader, so that it runs with the visibility of the application. The class
+     * must only depend on classes of the Java platform.
+     */
+    public Class<?> defineHelperClass(Class<?> helperClass) throws IOException {
+        Class<?> loadedClass = this.findLoadedClass(helperClass.getName());
+        if (loadedClass != null) {
+            return loadedClass;
+        }
+
+        String resourceName = helperClass.getName().replace('.', '/') + ".class";
+        try (InputStream inputStream = helperClass.getClassLoader().getResourceAsStream(resourceName)) {
+            if (inputStream == null) {
+                throw new IOException("Cannot find the class file " + resourceName + ".");
+            }
+
+            byte[] classBytes = inputStream.readAllBytes();
+            return this.defineClass(helperClass.getName(), classBytes, 0, classBytes.length);
+        }
+    }
+
+    @Override
+    public URL getResource(String name) {
+        URL resource = this.findResource(name);
+        if (resource != null) {
+            return resource;
+        }
+        return super.getResource(name);
+    }
+
+    @Override
+    public Enumeration<URL> getResources(String name) throws IOException {
+        List<URL> resources = new ArrayList<>(Collections.list(this.findResources(name)));
+        if (this.getParent() != null) {
+            resources.addAll(Collections.list(this.getParent().getResources(name)));
+        }
+        return Collections.enumeration(resources);
+    }
+
+    @Override
+    protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+        if (isParentFirst(name)) {
+            return super.loadClass(name, resolve);
+        }
+
+        synchronized (this.getClassLoadingLock(name)) {
+            Class<?> result = this.findLoadedClass(name);
+
+            if (result == null) {
+                try {
+                    result = this.findClass(name);
+                } catch (ClassNotFoundException e) {
+                    return super.loadClass(name, resolve);
+                }
+            }
+
+            if (resolve) {
+                this.resolveClass(result);
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,236 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Speeds up the startup of the Java process with a dynamic AppCDS archive (JDK 13+). The first launch dumps the loaded
+ * classes into an archive in the {@link CacheDirectory} when the process exits. All later launches map the archive instead of
+ * loading and verifying the classes again. The archive is keyed by the content hash of the Java runnable and by the JDK, so a
+ * changed jar or JDK leads to a new archive transparently.
+ */
+public class ClassDataSharing {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ClassDataSharing.class);
+
+    private static final int MIN_JAVA_VERSION = 13;
+    private static final String ARCHIVE_SUFFIX = ".jsa";
+    private static final String BASELINE_SUFFIX = ".baseline";
+    private static final Map<String, String> CONTENT_HASHES = new ConcurrentHashMap<>();
+
+    private final Path archive;
+    private final Path baselineFile;
+    private final boolean dumping;
+
+    private Path dumpFile;
+    private OptionalLong savedMillis = OptionalLong.empty();
+
+    private ClassDataSharing(Path archive) {
+        this.archive = archive;
+        this.baselineFile = archive.resolveSibling(archive.getFileName() + BASELINE_SUFFIX);
+        this.dumping = !Files.exists(archive);
+    }
+
+    /**
+     * @return The class data sharing for the given runnable or <code>null</code> if the JDK does not support dynamic archives.
+     */
+    public static ClassDataSharing create(String name, Path javaRunnable, String javaHome) {
+        String javaVersion = readJavaVersion(javaHome);
+        if (getFeatureVersion(javaVersion) < MIN_JAVA_VERSION) {
+            LOGGER.warn(
+                "Class data sharing needs Java {} or higher, but the Java version in {} is '{}'.",
+                MIN_JAVA_VERSION,
+                javaHome,
+                javaVersion);
+            return null;
+        }
+
+        try {
+            String key = sha1Hex(getContentHash(javaRunnable) + javaVersion + Paths.get(javaHome).toAbsolutePath());
+            Path archiveDir = CacheDirectory.get("appcds");
+            deleteStaleArchives(archiveDir, name, key);
+            return new ClassDataSharing(archiveDir.resolve(name + "-" + key + ARCHIVE_SUFFIX));
+        } catch (IOException e) {
+            LOGGER.warn("Class data sharing is not available: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    private static void deleteStaleArchives(Path archiveDir, String name, String key) throws IOException {
+        try (DirectoryStream<Path> archives = Files.newDirectoryStream(archiveDir, name + "-*")) {
+            for (Path eachArchive : archives) {
+                String fileName = eachArchive.getFileName().toString();
+                String archiveKey = StringUtils.substringBefore(fileName.substring(name.length() + 1), ".");
+                if (!archiveKey.equals(key) && archiveKey.length() == key.length()) {
+                    LOGGER.info("Deleting stale class data sharing archive {}", eachArchive);
+                    Files.deleteIfExists(eachArchive);
+                }
+            }
+        }
+    }
+
+    private static String getContentHash(Path file) throws IOException {
+        String cacheKey = file.toAbsolutePath() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+
+        String hash = CONTENT_HASHES.get(cacheKey);
+        if (hash == null) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                hash = sha1Hex(inputStream);
+            }
+            CONTENT_HASHES.put(cacheKey, hash);
+        }
+        return hash;
+    }
+
+    private static int getFeatureVersion(String javaVersion) {
+        if (StringUtils.isBlank(javaVersion)) {
+            return 0;
+        }
+
+        String[] parts = StringUtils.removeStart(javaVersion, "1.").split("[^0-9]");
+        try {
+            return Integer.parseInt(parts[0]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static String readJavaVersion(String javaHome) {
+        Path releaseFile = Paths.get(javaHome, "release");
+        if (!Files.exists(releaseFile)) {
+            return null;
+        }
+
+        try {
+            for (String eachLine : Files.readAllLines(releaseFile, UTF_8)) {
+                if (eachLine.startsWith("JAVA_VERSION=")) {
+                    return StringUtils.strip(eachLine.substring("JAVA_VERSION=".length()), "\"");
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not read {}: {}", releaseFile, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * @return The startup time saved compared to the launch that created the archive.
+     */
+    public OptionalLong getSavedMillis() {
+        return this.savedMillis;
+    }
+
+    /**
+     * @return The options for the Java command, including the leading dash.
+     */
+    public List<String> getJavaOptions() {
+        if (!this.dumping) {
+            LOGGER.info("Using class data sharing archive {}", this.archive);
+            return Arrays.asList("-XX:SharedArchiveFile=" + this.archive, "-Xshare:auto");
+        }
+
+        // every launch dumps into its own file, concurrent launches must not overwrite each other's archive while writing it
+        this.dumpFile = this.archive.resolveSibling(
+            this.archive.getFileName() + "." + ProcessHandle.current().pid() + "-" + System.nanoTime() + ".tmp");
+        LOGGER.info("Going to create the class data sharing archive {} when the process exits.", this.archive);
+        return Collections.singletonList("-XX:ArchiveClassesAtExit=" + this.dumpFile);
+    }
+
+    public boolean isDumping() {
+        return this.dumping;
+    }
+
+    @Override
+    public String toString() {
+        return "ClassDataSharing [archive=" + this.archive + ", dumping=" + this.dumping + "]";
+    }
+
+    /**
+     * Remember the startup time of the dumping launch or compute the time saved by the archive.
+     */
+    protected void onReady(long startupMillis) {
+        try {
+            if (this.dumping) {
+                Files.write(this.baselineFile, String.valueOf(startupMillis).getBytes(UTF_8));
+                return;
+            }
+
+            if (Files.exists(this.baselineFile)) {
+                long baselineMillis = Long.parseLong(new String(Files.readAllBytes(this.baselineFile), UTF_8).trim());
+                this.savedMillis = OptionalLong.of(baselineMillis - startupMillis);
+                LOGGER.info(
+                    "Class data sharing saved {} ms of startup time ({} ms without archive).",
+                    baselineMillis - startupMillis,
+                    baselineMillis);
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.warn("Could not process the startup baseline {}: {}", this.baselineFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Publish the archive dumped by the exited process.
+     */
+    protected void onStopped() {
+        if (this.dumpFile == null) {
+            return;
+        }
+
+        try {
+            if (Files.exists(this.dumpFile) && Files.size(this.dumpFile) > 0) {
+                Files.move(this.dumpFile, this.archive, ATOMIC_MOVE, REPLACE_EXISTING);
+                LOGGER.info("Created class data sharing archive {}", this.archive);
+            } else {
+                LOGGER.warn("The process did not create a class data sharing archive. Did it exit gracefully?");
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not publish the class data sharing archive {}: {}", this.archive, e.getMessage());
+        } finally {
+            deleteQuietly(this.dumpFile);
+            this.dumpFile = null;
+        }
+    }
+}
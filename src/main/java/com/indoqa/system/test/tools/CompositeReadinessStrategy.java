@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.util.stream.Collectors.joining;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Checks several {@link ReadinessProbe}s concurrently. The process is ready as soon as all probes succeed within one check.
+ * The latency of each probe in the last check is available via {@link #getProbeLatencies()}.
+ */
+public class CompositeReadinessStrategy implements ReadinessStrategy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CompositeReadinessStrategy.class);
+
+    private final List<ReadinessProbe> probes;
+    private final Duration probeTimeout;
+    private final Map<String, Long> probeLatencies = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    protected CompositeReadinessStrategy(List<ReadinessProbe> probes, Duration probeTimeout) {
+        this.probes = new ArrayList<>(probes);
+        this.probeTimeout = probeTimeout;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    @Override
+    public Map<String, Long> getProbeLatencies() {
+        synchronized (this.probeLatencies) {
+            return new LinkedHashMap<>(this.probeLatencies);
+        }
+    }
+
+    @Override
+    public void install(ReadinessContext context) {
+        this.probes.forEach(probe -> probe.install(context));
+    }
+
+    @Override
+    public boolean isReady() throws IOException {
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+
+        for (ReadinessProbe eachProbe : this.probes) {
+            long start = System.nanoTime();
+            results.add(eachProbe.probe(this.probeTimeout).whenComplete((ready, throwable) -> {
+                this.probeLatencies.put(eachProbe.getName(), elapsedMillis(start));
+            }));
+        }
+
+        try {
+            CompletableFuture.allOf(results.toArray(new CompletableFuture<?>[results.size()])).join();
+        } catch (CompletionException e) {
+            // report failed probes like any other readiness strategy
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+
+        List<String> pendingProbes = new ArrayList<>();
+        for (int i = 0; i < this.probes.size(); i++) {
+            if (!results.get(i).join()) {
+                pendingProbes.add(this.probes.get(i).getName());
+            }
+        }
+
+        LOGGER.info("Probe latencies: {}, not ready: {}", this.getProbeLatencies(), pendingProbes);
+        return pendingProbes.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        return this.probes.stream().map(Object::toString).collect(joining(", ", "probes [", "]"));
+    }
+}
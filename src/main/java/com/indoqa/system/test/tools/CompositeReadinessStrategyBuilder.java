@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+public class CompositeReadinessStrategyBuilder {
+
+    private static final Duration DEFAULT_PROBE_TIMEOUT = Duration.ofMillis(500);
+
+    private final List<ReadinessProbe> probes = new ArrayList<>();
+    private Duration probeTimeout = DEFAULT_PROBE_TIMEOUT;
+
+    private static void requireNonNull(Object object, String message) {
+        if (object == null) {
+            fail(message);
+        }
+    }
+
+    /**
+     * Add a probe that succeeds if the custom check returns <code>true</code>.
+     */
+    public CompositeReadinessStrategyBuilder addCustomProbe(String name, Callable<Boolean> check) {
+        requireNonNull(check, "The check must not be null.");
+
+        return this.addProbe(ReadinessProbe.custom(name, check));
+    }
+
+    /**
+     * Add a probe that succeeds if the address responds with status 200.
+     *
+     * @param address The URL to be checked. It may contain placeholders of reserved ports, e.g.
+     *            <code>http://localhost:${port:admin}/health</code>.
+     */
+    public CompositeReadinessStrategyBuilder addHttpProbe(String name, String address) {
+        return this.addHttpProbe(name, address, status -> status == HTTP_OK, null);
+    }
+
+    /**
+     * Add a probe that succeeds if the address responds with an expected status and, if a body predicate is given, an
+     * expected body.
+     */
+    public CompositeReadinessStrategyBuilder addHttpProbe(String name, String address, IntPredicate expectedStatus,
+            Predicate<String> bodyPredicate) {
+        requireNonNull(address, "The address must not be null.");
+        requireNonNull(expectedStatus, "The expected status must not be null.");
+
+        return this.addProbe(ReadinessProbe.http(name, address, expectedStatus, bodyPredicate));
+    }
+
+    public CompositeReadinessStrategyBuilder addProbe(ReadinessProbe probe) {
+        requireNonNull(probe, "The probe must not be null.");
+        requireNonNull(probe.getName(), "The name of the probe must not be null.");
+
+        for (ReadinessProbe eachProbe : this.probes) {
+            if (eachProbe.getName().equals(probe.getName())) {
+                fail("There is already a probe with the name '" + probe.getName() + "'.");
+            }
+        }
+
+        this.probes.add(probe);
+        return this;
+    }
+
+    /**
+     * Add a probe that succeeds if a TCP connection can be established.
+     *
+     * @param address The <code>host:port</code> to connect to, e.g. <code>localhost:${port:metrics}</code>.
+     */
+    public CompositeReadinessStrategyBuilder addTcpProbe(String name, String address) {
+        requireNonNull(address, "The address must not be null.");
+
+        return this.addProbe(ReadinessProbe.tcp(name, address));
+    }
+
+    public CompositeReadinessStrategy build() {
+        if (this.probes.isEmpty()) {
+            fail("A composite readiness strategy needs at least one probe.");
+        }
+
+        return new CompositeReadinessStrategy(this.probes, this.probeTimeout);
+    }
+
+    public CompositeReadinessStrategyBuilder setProbeTimeoutInMillis(int millis) {
+        if (millis <= 0) {
+            fail("The probe timeout must be a positive number.");
+        }
+
+        this.probeTimeout = Duration.ofMillis(millis);
+        return this;
+    }
+}
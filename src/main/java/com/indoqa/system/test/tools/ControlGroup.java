@@ -0,0 +1,270 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.exec.OS;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cgroup v2 that applies {@link ResourceLimits} to a process on Linux. The group is created as a sibling of the cgroup of
+ * the current JVM, so the JVM itself is not limited. If cgroups v2 are not available or not writable, e.g. because they are
+ * not delegated to the current user, the process runs without limits.
+ */
+public final class ControlGroup implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ControlGroup.class);
+
+    public static final String MEMORY_PEAK_BYTES = "cgroupMemoryPeakBytes";
+    public static final String OOM_KILLS = "cgroupOomKills";
+    public static final String CPU_THROTTLED_PERIODS = "cgroupCpuThrottledPeriods";
+    public static final String CPU_THROTTLED_MILLIS = "cgroupCpuThrottledMillis";
+
+    private static final String GROUP_PREFIX = "indoqa-system-test-tools-";
+    private static final long CPU_PERIOD_MICROS = 100_000;
+    private static final int REMOVE_ATTEMPTS = 50;
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private final Path directory;
+
+    private ControlGroup(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * @return The control group or <code>null</code> if cgroups v2 cannot be used.
+     */
+    public static ControlGroup create(String name, ResourceLimits limits) {
+        if (!OS.isFamilyUnix() || OS.isFamilyMac()) {
+            LOGGER.warn("Resource limits are only supported on Linux. The process runs without limits.");
+            return null;
+        }
+
+        try {
+            Path parent = getParentGroup();
+            if (parent == null) {
+                LOGGER.warn("There is no cgroup v2 hierarchy. The process runs without limits.");
+                return null;
+            }
+
+            enableControllers(parent, limits);
+
+            Path directory = parent.resolve(
+                GROUP_PREFIX + name.replaceAll("[^A-Za-z0-9_.-]", "_") + "-" + ProcessHandle.current().pid() + "-"
+                    + COUNTER.incrementAndGet());
+            Files.createDirectory(directory);
+
+            ControlGroup result = new ControlGroup(directory);
+            try {
+                result.applyLimits(limits);
+            } catch (IOException e) {
+                result.close();
+                throw e;
+            }
+
+            LOGGER.info("Created cgroup {} with {}", directory, limits);
+            return result;
+        } catch (IOException e) {
+            LOGGER.warn("Could not create a cgroup: {}. The process runs without limits.", e.getMessage());
+            return null;
+        }
+    }
+
+    private static void enableControllers(Path parent, ResourceLimits limits) {
+        StringBuilder controllers = new StringBuilder();
+        if (limits.getCpuQuota() > 0) {
+            controllers.append(" +cpu");
+        }
+        if (limits.getCpuSet() != null) {
+            controllers.append(" +cpuset");
+        }
+        if (limits.getMemoryLimitBytes() > 0) {
+            controllers.append(" +memory");
+        }
+        if (limits.getIoWeight() > 0) {
+            controllers.append(" +io");
+        }
+
+        for (String eachController : StringUtils.split(controllers.toString())) {
+            try {
+                write(parent.resolve("cgroup.subtree_control"), eachController);
+            } catch (IOException e) {
+                // already enabled or not delegated, applying the limit reports the problem
+            }
+        }
+    }
+
+    /**
+     * @return The parent of the cgroup of the current JVM in the cgroup v2 hierarchy.
+     */
+    private static Path getParentGroup() throws IOException {
+        Path mountPoint = null;
+        for (String eachLine : Files.readAllLines(Paths.get("/proc/self/mountinfo"), US_ASCII)) {
+            String[] parts = eachLine.split(" - ");
+            if (parts.length == 2 && parts[1].startsWith("cgroup2 ")) {
+                mountPoint = Paths.get(parts[0].split(" ")[4]);
+                break;
+            }
+        }
+        if (mountPoint == null) {
+            return null;
+        }
+
+        for (String eachLine : Files.readAllLines(Paths.get("/proc/self/cgroup"), US_ASCII)) {
+            if (eachLine.startsWith("0::")) {
+                Path ownGroup = mountPoint.resolve(StringUtils.removeStart(eachLine.substring(3), "/"));
+                Path parent = ownGroup.equals(mountPoint) ? mountPoint : ownGroup.getParent();
+                return Files.isWritable(parent) ? parent : null;
+            }
+        }
+        return null;
+    }
+
+    private static Map<String, Long> readKeyValues(Path file) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (!Files.isReadable(file)) {
+            return result;
+        }
+
+        try {
+            for (String eachLine : Files.readAllLines(file, US_ASCII)) {
+                String[] parts = StringUtils.split(eachLine);
+                if (parts.length == 2 && StringUtils.isNumeric(parts[1])) {
+                    result.put(parts[0], Long.parseLong(parts[1]));
+                }
+            }
+        } catch (IOException e) {
+            // the statistics are optional
+        }
+        return result;
+    }
+
+    private static void write(Path file, String value) throws IOException {
+        Files.write(file, value.getBytes(US_ASCII));
+    }
+
+    /**
+     * Move the process into this group. Child processes it starts later on are part of the group too.
+     */
+    public void add(ProcessHandle process) throws IOException {
+        write(this.directory.resolve("cgroup.procs"), String.valueOf(process.pid()));
+    }
+
+    /**
+     * Remove the group. This waits a moment for terminated processes to leave the group.
+     */
+    @Override
+    public void close() {
+        for (int i = 0; i < REMOVE_ATTEMPTS; i++) {
+            try {
+                Files.deleteIfExists(this.directory);
+                return;
+            } catch (IOException e) {
+                try {
+                    Thread.sleep(10);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        LOGGER.warn("Could not remove the cgroup {}.", this.directory);
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * @return The peak memory usage, OOM kills and CPU throttling of all processes that have been part of this group.
+     */
+    public Map<String, Long> readStatistics() {
+        Map<String, Long> result = new LinkedHashMap<>();
+
+        Path memoryPeak = this.directory.resolve("memory.peak");
+        if (Files.isReadable(memoryPeak)) {
+            try {
+                result.put(MEMORY_PEAK_BYTES, Long.parseLong(new String(Files.readAllBytes(memoryPeak), US_ASCII).trim()));
+            } catch (IOException | NumberFormatException e) {
+                // not available before Linux 5.19
+            }
+        }
+
+        Long oomKills = readKeyValues(this.directory.resolve("memory.events")).get("oom_kill");
+        if (oomKills != null) {
+            result.put(OOM_KILLS, oomKills);
+        }
+
+        Map<String, Long> cpuStatistics = readKeyValues(this.directory.resolve("cpu.stat"));
+        if (cpuStatistics.containsKey("nr_throttled")) {
+            result.put(CPU_THROTTLED_PERIODS, cpuStatistics.get("nr_throttled"));
+        }
+        if (cpuStatistics.containsKey("throttled_usec")) {
+            result.put(CPU_THROTTLED_MILLIS, cpuStatistics.get("throttled_usec") / 1000);
+        }
+
+        return result;
+    }
+
+    private void applyLimits(ResourceLimits limits) throws IOException {
+        if (limits.getCpuQuota() > 0) {
+            long quota = Math.max(1000, Math.round(limits.getCpuQuota() * CPU_PERIOD_MICROS));
+            write(this.directory.resolve("cpu.max"), quota + " " + CPU_PERIOD_MICROS);
+        }
+
+        if (limits.getCpuSet() != null) {
+            write(this.directory.resolve("cpuset.cpus"), limits.getCpuSet());
+        }
+
+        if (limits.getMemoryLimitBytes() > 0) {
+            write(this.directory.resolve("memory.max"), String.valueOf(limits.getMemoryLimitBytes()));
+        }
+
+        if (limits.getIoWeight() > 0) {
+            write(this.directory.resolve("io.weight"), "default " + limits.getIoWeight());
+        }
+    }
+
+    /**
+     * Wrap the command in a shell that moves itself into this group and then replaces itself with the command, so the process
+     * runs within the limits from its first instruction. If the shell cannot join the group, the command is started anyway and
+     * {@link #add(ProcessHandle)} can be retried with the same process.
+     */
+    public List<String> wrap(List<String> command) {
+        List<String> result = new ArrayList<>();
+        result.add("sh");
+        result.add("-c");
+        result.add("{ echo $$ > \"$0\"; } 2> /dev/null; exec \"$@\"");
+        result.add(this.directory.resolve("cgroup.procs").toString());
+        result.addAll(command);
+        return result;
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs a custom check on the {@link StartupExecutor}. An exception thrown by the check counts as not ready.
+ */
+public class CustomReadinessProbe implements ReadinessProbe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CustomReadinessProbe.class);
+
+    private final String name;
+    private final Callable<Boolean> check;
+
+    protected CustomReadinessProbe(String name, Callable<Boolean> check) {
+        this.name = name;
+        this.check = check;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> probe(Duration timeout) {
+        return CompletableFuture
+            .supplyAsync(this::check, StartupExecutor.get())
+            .completeOnTimeout(false, timeout.toMillis(), MILLISECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "custom probe '" + this.name + "'";
+    }
+
+    private boolean check() {
+        try {
+            return Boolean.TRUE.equals(this.check.call());
+        } catch (Exception e) {
+            LOGGER.info("Checking '{}': exception={}", this.name, e.getMessage());
+            return false;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.eclipse.jetty.server.Handler;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.server.handler.ContextHandler;
+import org.eclipse.jetty.server.handler.ContextHandlerCollection;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+import org.eclipse.jetty.webapp.Configuration;
+import org.eclipse.jetty.webapp.WebAppContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Deploys WAR archives into Jetty servers running inside the current JVM. There is one server per HTTP port and all servers
+ * share one thread pool. Every WAR gets its own {@link WebAppContext} that can be redeployed without touching the other
+ * contexts of its server. A server is stopped as soon as its last context has been undeployed.
+ */
+public final class EmbeddedJetty {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(EmbeddedJetty.class);
+
+    private static final Map<Integer, EmbeddedJetty> SERVERS = new HashMap<>();
+    private static final int DEFAULT_MAX_THREADS = 200;
+
+    private static QueuedThreadPool threadPool;
+
+    private final int port;
+    private final Server server;
+    private final ContextHandlerCollection contexts = new ContextHandlerCollection();
+
+    private EmbeddedJetty(int port) {
+        this.port = port;
+
+        // the thread pool is already running, so the server does not manage (and stop) it
+        this.server = new Server(getThreadPool());
+
+        ServerConnector connector = new ServerConnector(this.server);
+        connector.setPort(port);
+        this.server.addConnector(connector);
+        this.server.setHandler(this.contexts);
+
+        Configuration.ClassList classList = Configuration.ClassList.setServerDefault(this.server);
+        classList.addAfter(
+            "org.eclipse.jetty.webapp.FragmentConfiguration",
+            "org.eclipse.jetty.plus.webapp.EnvConfiguration",
+            "org.eclipse.jetty.plus.webapp.PlusConfiguration");
+        classList.addBefore(
+            "org.eclipse.jetty.webapp.JettyWebXmlConfiguration",
+            "org.eclipse.jetty.annotations.AnnotationConfiguration");
+    }
+
+    /**
+     * Deploy the WAR archive under the given context path into the server listening on the given port. The server is started
+     * if necessary.
+     */
+    public static synchronized Deployment deploy(int port, String contextPath, Path warArchive, Map<String, String> sysProps)
+            throws IOException {
+        EmbeddedJetty embeddedJetty = SERVERS.get(port);
+
+        if (embeddedJetty == null) {
+            embeddedJetty = new EmbeddedJetty(port);
+            embeddedJetty.start();
+            SERVERS.put(port, embeddedJetty);
+        } else if (embeddedJetty.hasContext(contextPath)) {
+            throw new IOException("There is already a context with the path " + contextPath + " on port " + port + ".");
+        }
+
+        Deployment deployment = embeddedJetty.new Deployment(contextPath, warArchive, sysProps);
+        try {
+            deployment.start();
+        } catch (IOException e) {
+            deployment.stop(Duration.ZERO);
+            throw e;
+        }
+        return deployment;
+    }
+
+    private static synchronized QueuedThreadPool getThreadPool() {
+        if (threadPool == null) {
+            threadPool = new QueuedThreadPool(DEFAULT_MAX_THREADS);
+            threadPool.setName("embedded-jetty");
+            threadPool.setDaemon(true);
+
+            try {
+                threadPool.start();
+            } catch (Exception e) {
+                throw new IllegalStateException("Could not start the thread pool of the embedded Jetty.", e);
+            }
+        }
+
+        return threadPool;
+    }
+
+    private static synchronized void undeploy(Deployment deployment) {
+        EmbeddedJetty embeddedJetty = deployment.getEmbeddedJetty();
+        embeddedJetty.contexts.removeHandler(deployment.context);
+
+        if (embeddedJetty.contexts.getHandlers() == null || embeddedJetty.contexts.getHandlers().length == 0) {
+            embeddedJetty.stop();
+            SERVERS.remove(embeddedJetty.port);
+        }
+    }
+
+    private boolean hasContext(String contextPath) {
+        Handler[] handlers = this.contexts.getHandlers();
+        if (handlers == null) {
+            return false;
+        }
+
+        for (Handler eachHandler : handlers) {
+            if (eachHandler instanceof ContextHandler && contextPath.equals(((ContextHandler) eachHandler).getContextPath())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void start() throws IOException {
+        LOGGER.info("Starting embedded Jetty on port {}.", this.port);
+
+        try {
+            this.server.start();
+        } catch (Exception e) {
+            throw new IOException("Could not start the embedded Jetty on port " + this.port + ": " + e.getMessage(), e);
+        }
+    }
+
+    private void stop() {
+        LOGGER.info("Stopping embedded Jetty on port {}.", this.port);
+
+        try {
+            this.server.stop();
+        } catch (Exception e) {
+            LOGGER.warn("Could not stop the embedded Jetty on port {}.", this.port, e);
+        }
+    }
+
+    /**
+     * A WAR archive deployed into an embedded Jetty.
+     */
+    public final class Deployment implements InProcessApplication {
+
+        private final WebAppContext context = new WebAppContext();
+        private final Map<String, String> sysProps;
+
+        private SystemPropertiesScope sysPropsScope;
+        private volatile Throwable failure;
+
+        protected Deployment(String contextPath, Path warArchive, Map<String, String> sysProps) {
+            this.sysProps = sysProps;
+
+            this.context.setContextPath(contextPath);
+            this.context.setWar(warArchive.toAbsolutePath().toString());
+            this.context.setThrowUnavailableOnStartupException(true);
+        }
+
+        @Override
+        public Throwable getFailure() {
+            return this.failure;
+        }
+
+        @Override
+        public boolean hasTerminated() {
+            return this.failure != null || !this.context.isRunning();
+        }
+
+        /**
+         * Stop and start the context again. All other contexts of the server keep running.
+         */
+        public void redeploy() throws IOException {
+            LOGGER.info("Redeploying {}.", this.context.getWar());
+
+            try {
+                this.context.stop();
+            } catch (Exception e) {
+                throw new IOException("Could not stop the context " + this.context.getContextPath() + ": " + e.getMessage(), e);
+            }
+            this.startContext();
+        }
+
+        @Override
+        public void stop(Duration timeout) {
+            this.context.setStopTimeout(timeout.toMillis());
+
+            try {
+                this.context.stop();
+            } catch (Exception e) {
+                LOGGER.warn("Could not stop the context {}.", this.context.getContextPath(), e);
+            }
+
+            undeploy(this);
+
+            if (this.sysPropsScope != null) {
+                this.sysPropsScope.close();
+                this.sysPropsScope = null;
+            }
+        }
+
+        protected EmbeddedJetty getEmbeddedJetty() {
+            return EmbeddedJetty.this;
+        }
+
+        protected void start() throws IOException {
+            this.sysPropsScope = SystemPropertiesScope.apply(this.context.getWar(), this.sysProps);
+
+            // adding a handler to a running collection does not start it
+            EmbeddedJetty.this.contexts.addHandler(this.context);
+            this.startContext();
+        }
+
+        private void startContext() throws IOException {
+            LOGGER.info(
+                "Deploying {} to {} on port {}.",
+                this.context.getWar(),
+                this.context.getContextPath(),
+                EmbeddedJetty.this.port);
+            this.failure = null;
+
+            try {
+                this.context.start();
+            } catch (Exception e) {
+                this.failure = e;
+                throw new IOException("Could not deploy " + this.context.getWar() + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+public class ExponentialBackoff implements Backoff {
+
+    private final long initialMillis;
+    private final long maxMillis;
+
+    protected ExponentialBackoff(long initialMillis, long maxMillis) {
+        this.initialMillis = Math.max(1, initialMillis);
+        this.maxMillis = Math.max(this.initialMillis, maxMillis);
+    }
+
+    @Override
+    public long nextDelay(int attempt) {
+        long delay = this.initialMillis;
+        for (int i = 1; i < attempt && delay < this.maxMillis; i++) {
+            delay <<= 1;
+        }
+        delay = Math.min(delay, this.maxMillis);
+
+        // equal jitter: keep half of the delay, randomize the other half
+        long half = delay / 2;
+        return half + ThreadLocalRandom.current().nextLong(delay - half + 1);
+    }
+
+    @Override
+    public String toString() {
+        return "exponential backoff (" + this.initialMillis + " ms to " + this.maxMillis + " ms)";
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.io.File.separator;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.zeroturnaround.exec.InvalidExitValueException;
+import org.zeroturnaround.exec.ProcessExecutor;
+
+/**
+ * Starts the Java process with a Java Flight Recorder recording and dumps it with <code>jcmd</code> on demand. The recording
+ * keeps the last {@value #DEFAULT_MAX_AGE} only, so a dump shows the recent past instead of everything since the start of a
+ * long-running process. Every dump is accompanied by a text summary of the hot methods, the GC pauses and the allocation
+ * rate, see {@link FlightRecordingSummary}.
+ */
+public class FlightRecording {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FlightRecording.class);
+
+    public static final String DEFAULT_TEMPLATE = "profile";
+    public static final String DEFAULT_MAX_AGE = "2m";
+
+    private static final String RECORDING_NAME = "system-test-tools";
+    private static final String RECORDING_SUFFIX = ".jfr";
+    private static final String SUMMARY_SUFFIX = ".summary.txt";
+
+    private final String template;
+    private final Path reportDir;
+
+    protected FlightRecording(String template, Path reportDir) {
+        this.template = template;
+        this.reportDir = reportDir;
+    }
+
+    /**
+     * Dump the recording of the process registered under the given process key, see {@link ProcessRegistry}, and write the
+     * summary next to it.
+     */
+    public static void dump(String javaHome, String processKey, Path target) throws IOException {
+        List<ProcessHandle> processes = ProcessRegistry.lookup(processKey);
+        if (processes.isEmpty()) {
+            throw new IOException("There is no running process with the key '" + processKey + "'.");
+        }
+
+        dump(javaHome, processes.get(0), target);
+        String fileName = StringUtils.removeEnd(target.getFileName().toString(), RECORDING_SUFFIX);
+        writeSummary(target, target.resolveSibling(fileName + SUMMARY_SUFFIX));
+    }
+
+    private static void dump(String javaHome, ProcessHandle process, Path target) throws IOException {
+        String jcmdCommand = new StringBuilder()
+            .append(javaHome)
+            .append(separator)
+            .append("bin")
+            .append(separator)
+            .append("jcmd")
+            .toString();
+
+        Files.createDirectories(target.toAbsolutePath().getParent());
+
+        try {
+            new ProcessExecutor()
+                .command(
+                    jcmdCommand,
+                    String.valueOf(process.pid()),
+                    "JFR.dump",
+                    "name=" + RECORDING_NAME,
+                    "filename=" + target.toAbsolutePath())
+                .readOutput(true)
+                .exitValueNormal()
+                .execute();
+        } catch (InvalidExitValueException e) {
+            throw new IOException("jcmd failed: " + e.getResult().outputUTF8(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while dumping the flight recording.", e);
+        } catch (TimeoutException e) {
+            throw new IOException("Timeout while dumping the flight recording.", e);
+        }
+    }
+
+    private static void writeSummary(Path recording, Path summary) {
+        try {
+            FlightRecordingSummary.write(recording, summary);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the summary of the flight recording {}.", recording, e);
+        }
+    }
+
+    /**
+     * Dump the recording of the given process to <code>&lt;report dir&gt;/&lt;test name&gt;-&lt;reason&gt;.jfr</code> and write
+     * the summary next to it.
+     *
+     * @return The path of the recording.
+     */
+    public Path dump(String javaHome, ProcessHandle process, String testName, String reason) throws IOException {
+        String fileName = (testName + "-" + reason).replaceAll("[^A-Za-z0-9_.-]", "_");
+        Path recording = this.reportDir.resolve(fileName + RECORDING_SUFFIX);
+
+        long start = System.nanoTime();
+        dump(javaHome, process, recording);
+        LOGGER.info("Dumped the flight recording {} in {} ms.", recording, (System.nanoTime() - start) / 1_000_000);
+
+        writeSummary(recording, this.reportDir.resolve(fileName + SUMMARY_SUFFIX));
+        return recording;
+    }
+
+    public List<String> getJavaOptions() {
+        return Arrays.asList(
+            "-XX:StartFlightRecording=name=" + RECORDING_NAME + ",settings=" + this.template + ",disk=true,maxage="
+                + DEFAULT_MAX_AGE);
+    }
+}
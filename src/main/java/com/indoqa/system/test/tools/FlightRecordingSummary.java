@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Comparator.comparingLong;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Writes a short text summary of a flight recording: the methods with the most execution samples, the GC pauses and the
+ * allocation rate.
+ */
+public final class FlightRecordingSummary {
+
+    private static final int HOT_METHODS = 20;
+
+    private FlightRecordingSummary() {
+        // hide utility class constructor
+    }
+
+    public static void write(Path recording, Path summary) throws IOException {
+        Map<String, Long> methodSamples = new HashMap<>();
+        long executionSamples = 0;
+        long gcCount = 0;
+        Duration gcPauses = Duration.ZERO;
+        Duration longestGcPause = Duration.ZERO;
+        long allocatedBytes = 0;
+        Instant firstEvent = null;
+        Instant lastEvent = null;
+
+        try (RecordingFile recordingFile = new RecordingFile(recording)) {
+            while (recordingFile.hasMoreEvents()) {
+                RecordedEvent event = recordingFile.readEvent();
+
+                if (firstEvent == null || event.getStartTime().isBefore(firstEvent)) {
+                    firstEvent = event.getStartTime();
+                }
+                if (lastEvent == null || event.getEndTime().isAfter(lastEvent)) {
+                    lastEvent = event.getEndTime();
+                }
+
+                switch (event.getEventType().getName()) {
+                    case "jdk.ExecutionSample":
+                        executionSamples++;
+                        String topMethod = getTopMethod(event.getStackTrace());
+                        if (topMethod != null) {
+                            methodSamples.merge(topMethod, 1L, Long::sum);
+                        }
+                        break;
+
+                    case "jdk.GarbageCollection":
+                        gcCount++;
+                        Duration pause = event.getDuration("sumOfPauses");
+                        gcPauses = gcPauses.plus(pause);
+                        if (pause.compareTo(longestGcPause) > 0) {
+                            longestGcPause = pause;
+                        }
+                        break;
+
+                    case "jdk.ObjectAllocationInNewTLAB":
+                        allocatedBytes += event.getLong("tlabSize");
+                        break;
+
+                    case "jdk.ObjectAllocationOutsideTLAB":
+                        allocatedBytes += event.getLong("allocationSize");
+                        break;
+
+                    default:
+                        break;
+                }
+            }
+        }
+
+        Duration recordingDuration = firstEvent == null ? Duration.ZERO : Duration.between(firstEvent, lastEvent);
+
+        StringWriter stringWriter = new StringWriter();
+        try (PrintWriter writer = new PrintWriter(stringWriter)) {
+            writer.printf("Flight recording: %s%n", recording.getFileName());
+            writer.printf("Duration: %d ms%n%n", recordingDuration.toMillis());
+
+            writer.printf(
+                "GC: %d collection(s), total pause %d ms, longest pause %d ms%n",
+                gcCount,
+                gcPauses.toMillis(),
+                longestGcPause.toMillis());
+
+            double seconds = recordingDuration.toMillis() / 1000.0;
+            writer.printf(
+                "Allocation: %d MB sampled from TLAB events, %.1f MB/s%n%n",
+                allocatedBytes / (1024 * 1024),
+                seconds > 0 ? allocatedBytes / (1024.0 * 1024.0) / seconds : 0);
+
+            writer.printf("Hot methods (%d execution samples):%n", executionSamples);
+            List<Map.Entry<String, Long>> hotMethods = methodSamples
+                .entrySet()
+                .stream()
+                .sorted(comparingLong(Map.Entry<String, Long>::getValue).reversed())
+                .limit(HOT_METHODS)
+                .collect(Collectors.toList());
+            for (Map.Entry<String, Long> eachMethod : hotMethods) {
+                writer.printf("%6.2f %%  %s%n", eachMethod.getValue() * 100.0 / executionSamples, eachMethod.getKey());
+            }
+        }
+
+        Files.write(summary, stringWriter.toString().getBytes(UTF_8));
+    }
+
+    private static String getTopMethod(RecordedStackTrace stackTrace) {
+        if (stackTrace == null || stackTrace.getFrames().isEmpty()) {
+            return null;
+        }
+
+        RecordedFrame topFrame = stackTrace.getFrames().get(0);
+        return topFrame.getMethod().getType().getName() + "." + topFrame.getMethod().getName();
+    }
+}
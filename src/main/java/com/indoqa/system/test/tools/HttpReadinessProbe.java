@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandler;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends a GET request with the non-blocking {@link HttpClient} that is shared by all probes, so connections are reused
+ * between attempts.
+ */
+public class HttpReadinessProbe implements ReadinessProbe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpReadinessProbe.class);
+
+    private static final HttpClient HTTP_CLIENT = HttpClient.newBuilder().executor(StartupExecutor.get()).build();
+
+    private final String name;
+    private final String addressTemplate;
+    private final IntPredicate expectedStatus;
+    private final Predicate<String> bodyPredicate;
+
+    private ReadinessContext context;
+    private URI address;
+
+    protected HttpReadinessProbe(String name, String addressTemplate, IntPredicate expectedStatus,
+            Predicate<String> bodyPredicate) {
+        this.name = name;
+        this.addressTemplate = addressTemplate;
+        this.expectedStatus = expectedStatus;
+        this.bodyPredicate = bodyPredicate;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void install(ReadinessContext readinessContext) {
+        this.context = readinessContext;
+        this.address = URI.create(readinessContext.resolvePorts(this.addressTemplate));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> probe(Duration timeout) {
+        HttpRequest request = HttpRequest.newBuilder(this.getAddress()).timeout(timeout).GET().build();
+
+        return HTTP_CLIENT
+            .sendAsync(request, this.getBodyHandler())
+            .thenApply(this::isExpectedResponse)
+            .exceptionally(throwable -> {
+                LOGGER.info("Accessing '{}': exception={}", request.uri(), throwable.getMessage());
+                return false;
+            });
+    }
+
+    @Override
+    public String toString() {
+        return "HTTP probe '" + this.name + "' (" + this.getAddress() + ")";
+    }
+
+    private URI getAddress() {
+        if (this.address == null) {
+            return URI.create(this.addressTemplate);
+        }
+        return this.address;
+    }
+
+    private BodyHandler<String> getBodyHandler() {
+        if (this.bodyPredicate == null) {
+            return BodyHandlers.replacing(null);
+        }
+        return BodyHandlers.ofString();
+    }
+
+    private boolean isExpectedResponse(HttpResponse<String> response) {
+        LOGGER.info("Accessing '{}': responseCode={}", response.uri(), response.statusCode());
+        if (this.context != null) {
+            this.context.responded();
+        }
+
+        if (!this.expectedStatus.test(response.statusCode())) {
+            return false;
+        }
+        return this.bodyPredicate == null || this.bodyPredicate.test(response.body());
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.net.HttpURLConnection.HTTP_OK;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.HttpURLConnection;
+import java.net.SocketTimeoutException;
+import java.net.URL;
+import java.time.Duration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class HttpReadinessStrategy implements ReadinessStrategy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpReadinessStrategy.class);
+
+    private static final Duration DEFAULT_HTTP_TIMEOUT = Duration.ofMillis(500);
+
+    private final URL checkAddress;
+    private final Duration timeout;
+
+    private ReadinessContext context;
+
+    protected HttpReadinessStrategy(URL checkAddress) {
+        this(checkAddress, DEFAULT_HTTP_TIMEOUT);
+    }
+
+    protected HttpReadinessStrategy(URL checkAddress, Duration timeout) {
+        this.checkAddress = checkAddress;
+        this.timeout = timeout;
+    }
+
+    @Override
+    public void install(ReadinessContext readinessContext) {
+        this.context = readinessContext;
+    }
+
+    @Override
+    public boolean isReady() throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) this.checkAddress.openConnection();
+        connection.setConnectTimeout((int) this.timeout.toMillis());
+        connection.setReadTimeout((int) this.timeout.toMillis());
+
+        try {
+            int responseCode = connection.getResponseCode();
+            LOGGER.info("Accessing '{}': responseCode={}", this.checkAddress, responseCode);
+            if (this.context != null) {
+                this.context.responded();
+            }
+            return responseCode == HTTP_OK;
+        } catch (SocketTimeoutException | ConnectException e) {
+            LOGGER.info("Accessing '{}': exception={}", this.checkAddress, e.getMessage());
+            return false;
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "check address '" + this.checkAddress + "'";
+    }
+}
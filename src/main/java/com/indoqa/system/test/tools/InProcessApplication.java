@@ -0,0 +1,40 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.time.Duration;
+
+/**
+ * An application that a {@link JarRunner} runs inside the current JVM instead of a separate process.
+ */
+public interface InProcessApplication {
+
+    /**
+     * @return The exception that made the application fail or <code>null</code>.
+     */
+    Throwable getFailure();
+
+    /**
+     * @return <code>true</code> if the application is not running anymore.
+     */
+    boolean hasTerminated();
+
+    /**
+     * Stop the application and release all its resources, waiting at most the given time.
+     */
+    void stop(Duration timeout);
+}
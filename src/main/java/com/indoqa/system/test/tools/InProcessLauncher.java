@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.sql.DriverManager;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.Attributes;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.Manifest;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the main class of a runnable jar inside the current JVM. The jar is loaded by its own {@link ChildFirstClassLoader} and
+ * its main method runs on a thread of its own thread group. Stopping interrupts all threads of that group and closes the class
+ * loader, so repeated starts do not leak classes.
+ *
+ * Spring Boot jars are started with their <code>Start-Class</code> and the nested libraries extracted into the
+ * {@link CacheDirectory}. All other jars are started with their <code>Main-Class</code> and <code>Class-Path</code> entries.
+ *
+ * Keep in mind that the started application shares the JVM with the tests: system properties are global while the application
+ * runs and a call of {@link System#exit(int)} terminates the tests.
+ */
+public class InProcessLauncher implements InProcessApplication {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(InProcessLauncher.class);
+
+    private static final String SPRING_BOOT_START_CLASS = "Start-Class";
+    private static final String SPRING_BOOT_CLASSES = "BOOT-INF/classes/";
+    private static final String SPRING_BOOT_LIB = "BOOT-INF/lib/";
+    private static final Map<String, String> JAR_HASHES = new ConcurrentHashMap<>();
+
+    private final Path jar;
+    private final String name;
+
+    private ChildFirstClassLoader classLoader;
+    private ThreadGroup threadGroup;
+    private SystemPropertiesScope sysPropsScope;
+    private volatile boolean mainCompleted;
+    private volatile Throwable failure;
+
+    public InProcessLauncher(Path jar, String name) {
+        this.jar = jar;
+        this.name = name;
+    }
+
+    private static Path extractSpringBootJar(JarFile jarFile, Path jar) throws IOException {
+        // hashing a big jar on every start would cost more than the in-process start saves
+        String cacheKey = jar.toAbsolutePath() + ":" + Files.size(jar) + ":" + Files.getLastModifiedTime(jar).toMillis();
+        String hash = JAR_HASHES.get(cacheKey);
+        if (hash == null) {
+            try (InputStream inputStream = Files.newInputStream(jar)) {
+                hash = sha1Hex(inputStream);
+            }
+            JAR_HASHES.put(cacheKey, hash);
+        }
+
+        Path targetDir = CacheDirectory.get("in-process").resolve(hash);
+        if (Files.isDirectory(targetDir)) {
+            return targetDir;
+        }
+
+        Path tempDir = Files.createTempDirectory(targetDir.getParent(), hash);
+        Enumeration<JarEntry> entries = jarFile.entries();
+        while (entries.hasMoreElements()) {
+            JarEntry eachEntry = entries.nextElement();
+            if (eachEntry.isDirectory() || !eachEntry.getName().startsWith("BOOT-INF/")) {
+                continue;
+            }
+
+            Path target = tempDir.resolve(eachEntry.getName()).normalize();
+            if (!target.startsWith(tempDir)) {
+                throw new IOException("Invalid entry " + eachEntry.getName() + " in " + jar);
+            }
+            Files.createDirectories(target.getParent());
+            try (InputStream inputStream = jarFile.getInputStream(eachEntry)) {
+                Files.copy(inputStream, target);
+            }
+        }
+
+        try {
+            Files.move(tempDir, targetDir, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(tempDir.toFile());
+
+            // another runner might have extracted the same jar in the meantime
+            if (!Files.isDirectory(targetDir)) {
+                throw e;
+            }
+        }
+        return targetDir;
+    }
+
+    private static void addClassPathEntries(Manifest manifest, Path jar, List<URL> urls) throws MalformedURLException {
+        String classPath = manifest.getMainAttributes().getValue(Attributes.Name.CLASS_PATH);
+        if (StringUtils.isBlank(classPath)) {
+            return;
+        }
+
+        URL baseUrl = jar.toAbsolutePath().getParent().toUri().toURL();
+        for (String eachEntry : classPath.trim().split("\\s+")) {
+            urls.add(new URL(baseUrl, eachEntry));
+        }
+    }
+
+    @Override
+    public Throwable getFailure() {
+        return this.failure;
+    }
+
+    /**
+     * @return <code>true</code> if the main method has thrown an exception or if it has returned and there are no threads of
+     *         the application left.
+     */
+    @Override
+    public boolean hasTerminated() {
+        return this.failure != null || this.mainCompleted && this.threadGroup.activeCount() == 0;
+    }
+
+    /**
+     * Start the main method on a new thread.
+     *
+     * @param onTermination Called when the main method throws an exception.
+     */
+    public void start(List<String> arguments, Map<String, String> sysProps, ProcessOutput output, Runnable onTermination)
+            throws IOException {
+        List<URL> urls = new ArrayList<>();
+        String mainClassName;
+
+        try (JarFile jarFile = new JarFile(this.jar.toFile())) {
+            Manifest manifest = jarFile.getManifest();
+            if (manifest == null) {
+                throw new IOException("The jar " + this.jar + " does not have a manifest.");
+            }
+
+            String startClass = manifest.getMainAttributes().getValue(SPRING_BOOT_START_CLASS);
+            if (startClass != null && jarFile.getEntry(SPRING_BOOT_CLASSES) != null) {
+                Path extractedDir = extractSpringBootJar(jarFile, this.jar);
+                urls.add(extractedDir.resolve(SPRING_BOOT_CLASSES).toUri().toURL());
+                try (Stream<Path> libs = Files.list(extractedDir.resolve(SPRING_BOOT_LIB))) {
+                    for (Path eachLib : (Iterable<Path>) libs.sorted()::iterator) {
+                        urls.add(eachLib.toUri().toURL());
+                    }
+                }
+                mainClassName = startClass;
+            } else {
+                urls.add(this.jar.toUri().toURL());
+                addClassPathEntries(manifest, this.jar, urls);
+                mainClassName = manifest.getMainAttributes().getValue(Attributes.Name.MAIN_CLASS);
+            }
+        }
+
+        if (StringUtils.isBlank(mainClassName)) {
+            throw new IOException("The jar " + this.jar + " does not declare a main class.");
+        }
+
+        this.classLoader = new ChildFirstClassLoader(
+            urls.toArray(new URL[urls.size()]),
+            InProcessLauncher.class.getClassLoader());
+        this.threadGroup = new ThreadGroup("in-process-" + this.name);
+        this.mainCompleted = false;
+        this.failure = null;
+
+        ThreadGroupOutputRouter.register(this.threadGroup, output);
+        this.sysPropsScope = SystemPropertiesScope.apply(this.name, sysProps);
+
+        String[] args = arguments.toArray(new String[arguments.size()]);
+        String className = mainClassName;
+        Thread mainThread = new Thread(this.threadGroup, () -> {
+            try {
+                Class<?> mainClass = Class.forName(className, true, this.classLoader);
+                Method mainMethod = mainClass.getMethod("main", String[].class);
+                mainMethod.invoke(null, (Object) args);
+            } catch (InvocationTargetException e) {
+                this.failure = e.getCause();
+                LOGGER.error("The main method of {} failed.", className, e.getCause());
+                onTermination.run();
+            } catch (ReflectiveOperationException | LinkageError e) {
+                this.failure = e;
+                LOGGER.error("Could not invoke the main method of {}.", className, e);
+                onTermination.run();
+            } finally {
+                this.mainCompleted = true;
+            }
+        }, this.name + "-main");
+        mainThread.setContextClassLoader(this.classLoader);
+        mainThread.setDaemon(true);
+
+        LOGGER.info("Starting {} in-process with class path {}", mainClassName, urls);
+        mainThread.start();
+    }
+
+    /**
+     * Interrupt all threads of the application, wait for them to end and release the class loader.
+     */
+    @Override
+    public void stop(Duration timeout) {
+        if (this.threadGroup == null) {
+            return;
+        }
+
+        this.threadGroup.interrupt();
+
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (this.threadGroup.activeCount() > 0 && System.nanoTime() < deadline) {
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        if (this.threadGroup.activeCount() > 0) {
+            Thread[] threads = new Thread[this.threadGroup.activeCount() * 2];
+            int count = this.threadGroup.enumerate(threads);
+            List<String> threadNames = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                threadNames.add(threads[i].getName());
+            }
+            LOGGER.warn("{} thread(s) of {} did not end within {} ms: {}", count, this.name, timeout.toMillis(), threadNames);
+        }
+
+        ThreadGroupOutputRouter.unregister(this.threadGroup);
+        this.sysPropsScope.close();
+        this.deregisterJdbcDrivers();
+
+        try {
+            this.classLoader.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not close the class loader of {}.", this.name, e);
+        }
+
+        this.classLoader = null;
+        this.threadGroup = null;
+    }
+
+    /**
+     * {@link DriverManager} only returns the drivers visible to the caller, so the drivers of the application are deregistered
+     * from within its class loader, see {@link JdbcDriverCleaner}.
+     */
+    private void deregisterJdbcDrivers() {
+        try {
+            Class<?> cleanerClass = this.classLoader.defineHelperClass(JdbcDriverCleaner.class);
+            Object cleaner = cleanerClass.getConstructor().newInstance();
+            Object drivers = cleanerClass.getMethod("deregisterDrivers").invoke(cleaner);
+            LOGGER.debug("Deregistered the JDBC driver(s) {} of {}.", drivers, this.name);
+        } catch (IOException | ReflectiveOperationException | LinkageError e) {
+            LOGGER.warn("Could not deregister the JDBC drivers of {}.", this.name, e);
+        }
+    }
+}
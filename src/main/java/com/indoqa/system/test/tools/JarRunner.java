@@ -16,10 +16,11 @@
  */
 package com.indoqa.system.test.tools;
 
+import static com.indoqa.system.test.tools.JarRunnerPhase.*;
 import static java.io.File.separator;
-import static java.net.HttpURLConnection.HTTP_OK;
 import static java.util.Collections.emptyMap;
 import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
 import static org.apache.commons.lang3.StringUtils.*;
@@ -27,49 +28,72 @@ import static org.junit.Assert.fail;
 
 import java.io.IOException;
 import java.io.PrintStream;
-import java.net.*;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeoutException;
 import java.util.function.Predicate;
 import java.util.stream.Stream;
 
-import org.apache.commons.exec.*;
+import org.apache.commons.exec.OS;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.rules.ExternalResource;
+import org.junit.runner.Description;
+import org.junit.runners.model.Statement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.zeroturnaround.exec.InvalidExitValueException;
 import org.zeroturnaround.exec.ProcessExecutor;
-import org.zeroturnaround.exec.ProcessResult;
 
 public class JarRunner extends ExternalResource {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(JarRunner.class);
 
-    private static final long SECOND_TO_MILLIS = SECONDS.toMillis(1);
     private static final String PROCESS_KEY_PREFIX = "process-key";
     private static final String ENV_VAR_JAVA_HOME = "JAVA_HOME";
-    private static final String CHAR_QUOTE = "\"";
     private static final String CHAR_SPACE = " ";
 
     private static final Path DEFAULT_WORKING_DIR = Paths.get(".");
+    private static final Path DEFAULT_METRICS_REPORT_DIR = Paths.get("target", "system-test-tools");
+    private static final Path DEFAULT_FLIGHT_RECORDING_DIR = Paths.get("target", "surefire-reports");
+    private static final Path DEFAULT_SANDBOX_DIR = Paths.get("target", "system-test-tools", "sandboxes");
+    private static final Path DEFAULT_SNAPSHOT_DIR = Paths.get("target", "system-test-tools", "snapshots");
     private static final PrintStream DEFAULT_OUT = System.out;
     private static final PrintStream DEFAULT_ERR = System.err;
-    private static final int DEFAULT_HTTP_TIMEOUTS = 500;
     private static final long DEFAULT_MAX_WAIT_FOR_STARTUP = 10;
     private static final int DEFAULT_CHECK_INTERVALL = 500;
     private static final int DEFAULT_ALWAYS_WAIT = 0;
+    private static final int DEFAULT_FAILURE_OUTPUT_LINES = 50;
+    private static final int DEFAULT_OUTPUT_BUFFER_LINES = 10_000;
+    private static final int UNLIMITED_FORWARDED_LINES = -1;
+    private static final Duration DEFAULT_SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
     protected static final int MIN_CHECK_INTERVALL = 5;
+    public static final String CLASS_DATA_SHARING_SAVED_MILLIS = "classDataSharingSavedMillis";
+    public static final String PROBE_MILLIS_PREFIX = "probeMillis.";
+    private static final Backoff DEFAULT_BACKOFF = Backoff.exponential(MIN_CHECK_INTERVALL, DEFAULT_CHECK_INTERVALL);
 
     private final Path javaRunnablePath;
 
-    private URL checkAddress;
+    private ReadinessStrategy readinessStrategy;
+    private ReadinessContext readinessContext;
+    private ReadinessResult readinessResult;
     private String processKey;
     private String javaHome;
     private Map<String, String> runnableSysProps = new ConcurrentHashMap<>();
@@ -78,10 +102,44 @@ public class JarRunner extends ExternalResource {
     private PrintStream out = DEFAULT_OUT;
     private PrintStream err = DEFAULT_ERR;
     private Path workingDir = DEFAULT_WORKING_DIR;
+    private Path sandboxTemplate;
+    private SandboxMode sandboxMode;
+    private WorkingDirSandbox sandbox;
+    private boolean snapshotReset;
+    private WorkingDirSnapshot snapshot;
+    private ResetHook resetHook;
+    private boolean resetting;
+    private boolean shared;
     private long waitForStartupInSeconds = DEFAULT_MAX_WAIT_FOR_STARTUP;
-    private int checkIntervall = DEFAULT_CHECK_INTERVALL;
+    private Backoff backoff = DEFAULT_BACKOFF;
     private int alwaysWait = DEFAULT_ALWAYS_WAIT;
     private JarRunnerAction preInitializationAction;
+    private long processStartNanos;
+    private CompletableFuture<Integer> processExit;
+    private Path argumentFile;
+    private ProcessHandle process;
+    private boolean jpsProcessDiscovery;
+    private Duration shutdownTimeout = DEFAULT_SHUTDOWN_TIMEOUT;
+    private long shutdownMillis;
+    private Set<String> portNames = new LinkedHashSet<>();
+    private Map<String, PortReservation> portReservations = new LinkedHashMap<>();
+    private String checkAddressTemplate;
+    private ProcessOutput output;
+    private int outputBufferLines = DEFAULT_OUTPUT_BUFFER_LINES;
+    private int maxForwardedLinesPerSecond = UNLIMITED_FORWARDED_LINES;
+    private List<JarRunnerListener> listeners = new CopyOnWriteArrayList<>();
+    private JarRunnerMetrics metrics;
+    private Path metricsReportDir = DEFAULT_METRICS_REPORT_DIR;
+    private boolean classDataSharingEnabled;
+    private ClassDataSharing classDataSharing;
+    private boolean inProcess;
+    private InProcessApplication inProcessApplication;
+    private ResourceLimits resourceLimits = new ResourceLimits();
+    private ControlGroup controlGroup;
+    private FlightRecording flightRecording;
+    private Duration telemetryInterval;
+    private JvmTelemetry telemetry;
+    private String testName;
 
     protected JarRunner(Path javaRunnablePath) {
         checkOS();
@@ -96,11 +154,8 @@ public class JarRunner extends ExternalResource {
         fail("The integration tests only run on Unix, MacOS or Windows based operating systems at present.");
     }
 
-    private static ProcessExecutor createKillCommand(String pid) {
-        if (OS.isFamilyWindows()) {
-            return new ProcessExecutor().command("taskkill", "/F", "/PID", pid);
-        }
-        return new ProcessExecutor().command("kill", pid);
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
     }
 
     private static String extractCommandFromJpsLine(String jpsLine) {
@@ -116,24 +171,6 @@ public class JarRunner extends ExternalResource {
         return line.split(CHAR_SPACE)[0];
     }
 
-    private static void killProcess(String pid, String command) throws IOException, InterruptedException, TimeoutException {
-        LOGGER.info("Going to kill process with pid {} (Java command: {})", pid, command);
-        ProcessResult killResult = createKillCommand(pid).environment(System.getenv()).execute();
-        if (killResult.getExitValue() == 0) {
-            LOGGER.info("Killed process with pid {}", pid);
-            return;
-        }
-
-        fail("Could not 'force kill' the process with pid " + pid);
-    }
-
-    private static CharSequence quote(String value) {
-        if (contains(value, CHAR_SPACE)) {
-            return new StringBuilder(CHAR_QUOTE).append(value).append(CHAR_QUOTE);
-        }
-        return value;
-    }
-
     private static void sleep(int sleep) {
         try {
             Thread.sleep(sleep);
@@ -142,6 +179,25 @@ public class JarRunner extends ExternalResource {
         }
     }
 
+    /**
+     * Stop all given runners in parallel.
+     */
+    public static void stopAll(Collection<? extends JarRunner> runners) {
+        CompletableFuture<?>[] stops = runners
+            .stream()
+            .map(runner -> CompletableFuture.runAsync(runner::after))
+            .toArray(CompletableFuture<?>[]::new);
+
+        try {
+            CompletableFuture.allOf(stops).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof AssertionError) {
+                throw (AssertionError) e.getCause();
+            }
+            throw e;
+        }
+    }
+
     protected void addArguments(String... arg) {
         this.arguments.addAll(Arrays.asList(arg));
     }
@@ -150,55 +206,438 @@ public class JarRunner extends ExternalResource {
         this.runnableOptions.addAll(Arrays.asList(options));
     }
 
+    protected void addListener(JarRunnerListener listener) {
+        this.listeners.add(listener);
+    }
+
+    protected void addPort(String name) {
+        this.portNames.add(name);
+    }
+
     protected void addSysProp(String name, String value) {
         this.runnableSysProps.put(name, value);
     }
 
     @Override
     protected void after() {
-        this.cleanJavaProcesses();
+        if (JarRunnerPool.release(this)) {
+            return;
+        }
+
+        this.stop();
+    }
+
+    @Override
+    public Statement apply(Statement base, Description description) {
+        // a shared runner serves several test classes, so its recordings are named after the runner
+        if (!this.shared) {
+            this.testName = description.getClassName();
+        }
+        return super.apply(base, description);
+    }
+
+    /**
+     * Dump the flight recording of the running process into <code>target/surefire-reports</code>. The file is named after
+     * the test class, or the runner if it is shared, and the given reason.
+     *
+     * @return The path of the recording.
+     */
+    public Path dumpFlightRecording(String reason) {
+        if (this.flightRecording == null) {
+            fail("The flight recording is not enabled.");
+        }
+        if (this.process == null || !this.process.isAlive()) {
+            fail("There is no running process to dump the flight recording of.");
+        }
+
+        try {
+            return this.flightRecording.dump(this.javaHome, this.process, defaultString(this.testName, this.getName()), reason);
+        } catch (IOException e) {
+            fail("Could not dump the flight recording: " + e.getMessage());
+        }
+        return null;
     }
 
     protected Path getJavaRunnablePath() {
         return this.javaRunnablePath;
     }
 
+    /**
+     * @return A hash of everything that influences the started process. Two runners with the same fingerprint start equal
+     *         processes and can be shared by the {@link JarRunnerPool}.
+     */
+    protected String getLaunchFingerprint() {
+        StringBuilder fingerprintBuilder = new StringBuilder()
+            .append(this.getClass().getName())
+            .append('\n')
+            .append(defaultIfBlank(this.javaHome, System.getenv(ENV_VAR_JAVA_HOME)))
+            .append('\n')
+            .append(this.getProcessKeySource())
+            .append('\n')
+            .append(this.workingDir.toAbsolutePath().normalize())
+            .append('\n')
+            .append(
+                this.sandboxTemplate == null ? "" : this.sandboxTemplate.toAbsolutePath().normalize() + ":" + this.sandboxMode)
+            .append('\n')
+            .append(this.runnableOptions)
+            .append('\n')
+            .append(new TreeMap<>(this.runnableSysProps))
+            .append('\n')
+            .append(this.arguments)
+            .append('\n')
+            .append(this.inProcess)
+            .append('\n')
+            .append(this.resourceLimits);
+
+        return sha1Hex(fingerprintBuilder.toString());
+    }
+
+    /**
+     * @return The metrics of the last run or <code>null</code> if the runner has not been started yet.
+     */
+    public JarRunnerMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * @return The name used for reports, by default the file name of the Java runnable without its extension.
+     */
+    public String getName() {
+        return removeEnd(this.javaRunnablePath.getFileName().toString(), ".jar");
+    }
+
+    /**
+     * @return The output of the last started process or <code>null</code> if no process has been started yet.
+     */
+    public ProcessOutput getOutput() {
+        return this.output;
+    }
+
+    /**
+     * @return The port reserved under the given name, see {@link PortReservation}.
+     */
+    public int getPort(String name) {
+        PortReservation reservation = this.portReservations.get(name);
+        if (reservation == null) {
+            fail("There is no reserved port with the name '" + name + "'.");
+        }
+        return reservation.getPort();
+    }
+
+    /**
+     * @return All reserved ports by their names.
+     */
+    public Map<String, Integer> getPorts() {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        this.portReservations.forEach((name, reservation) -> result.put(name, reservation.getPort()));
+        return result;
+    }
+
+    /**
+     * @return The key that identifies the processes started by this runner in the {@link ProcessRegistry}, e.g. for
+     *         {@link FlightRecording#dump(String, String, Path)}.
+     */
+    public String getProcessKey() {
+        return this.processKey;
+    }
+
+    /**
+     * @return The string that identifies the processes started by this runner. Its hash becomes part of the process key.
+     */
+    protected String getProcessKeySource() {
+        return this.javaRunnablePath.toAbsolutePath().toString();
+    }
+
+    /**
+     * @return The timings of the last readiness check or <code>null</code> if there was no readiness check.
+     */
+    public ReadinessResult getReadinessResult() {
+        return this.readinessResult;
+    }
+
+    /**
+     * @return The time it took to shut down the Java process the last time it was stopped.
+     */
+    public long getShutdownMillis() {
+        return this.shutdownMillis;
+    }
+
+    /**
+     * @return The telemetry of the last started process or <code>null</code> if telemetry is not enabled or no process has been
+     *         started yet. The time series stays available after the process has been stopped.
+     */
+    public TelemetryTimeSeries getTelemetry() {
+        if (this.telemetry == null) {
+            return null;
+        }
+        return this.telemetry.getTimeSeries();
+    }
+
+    /**
+     * @return The working directory of the started process, i.e. its private sandbox if a sandbox is configured and the process
+     *         is running.
+     */
+    public Path getWorkingDir() {
+        if (this.sandbox != null) {
+            return this.sandbox.getDirectory();
+        }
+        return this.workingDir;
+    }
+
+    /**
+     * @return <code>true</code> if the started process is still alive and passes its readiness check.
+     */
+    protected boolean isHealthy() {
+        if (this.inProcessApplication != null) {
+            if (this.inProcessApplication.hasTerminated()) {
+                return false;
+            }
+        } else if (this.process == null || !this.process.isAlive()) {
+            return false;
+        }
+
+        if (this.readinessStrategy == null) {
+            return true;
+        }
+
+        try {
+            return this.readinessStrategy.isReady();
+        } catch (IOException e) {
+            LOGGER.info("The readiness check of the process with key '{}' failed: {}", this.processKey, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return <code>true</code> while {@link #reset()} stops and starts the process again. Resources that must survive the
+     *         restart, like the reserved ports, are kept during {@link #stop()} then.
+     */
+    protected boolean isResetting() {
+        return this.resetting;
+    }
+
+    /**
+     * Bring the application back into the state right after its first start. The reset hook is called if there is one. Otherwise,
+     * or if the hook fails, the process is stopped, its working directory is restored from the snapshot taken after the first
+     * readiness and the process is started again with the same ports.
+     */
+    public void reset() {
+        long start = System.nanoTime();
+
+        if (this.resetHook == null || !this.resetWithHook()) {
+            if (this.snapshot == null) {
+                fail(
+                    "There is no working dir snapshot of " + this.getName()
+                        + " to reset to. Enable the snapshot reset or set a reset hook.");
+            }
+
+            this.resetting = true;
+            try {
+                this.stop();
+                int changedFiles = this.snapshot.restore(this.getWorkingDir());
+                LOGGER.info(
+                    "Restored {} file(s) of {} from the snapshot {}.",
+                    changedFiles,
+                    this.getWorkingDir(),
+                    this.snapshot.getDirectory());
+                this.run();
+            } catch (IOException e) {
+                fail("Could not restore the working dir of " + this.getName() + " from the snapshot: " + e.getMessage());
+            } finally {
+                this.resetting = false;
+            }
+        }
+
+        this.recordPhase(RESET, elapsedMillis(start));
+    }
+
     protected void run() {
-        this.initializeJavaHome();
+        this.metrics = new JarRunnerMetrics(this.getName());
+        this.checkSnapshotReset();
+
+        this.measure(INITIALIZE_JAVA_HOME, this::initializeJavaHome);
         this.initializeProcessKey();
+        this.initializeClassDataSharing();
 
-        this.cleanJavaProcesses();
-        this.preInitialization();
+        this.measure(CLEAN_JAVA_PROCESSES, this::cleanJavaProcesses);
+        // a reset restores the working dir from the snapshot instead
+        if (!this.resetting) {
+            this.measure(PRE_INITIALIZATION, this::preInitialization);
+        }
+        if (this.sandboxTemplate != null && this.sandbox == null && !this.inProcess) {
+            this.measure(CREATE_SANDBOX, this::createSandbox);
+        }
 
-        this.startProcess();
-        this.waitForCheckAddress();
-        this.alwaysWait();
+        this.reservePorts();
+        this.installReadinessStrategy();
+        this.measure(START_PROCESS, this.inProcess ? this::startInProcess : this::startProcess);
+        this.waitForReadiness();
+        this.measure(ALWAYS_WAIT, this::alwaysWait);
+        this.startTelemetry();
+        this.takeSnapshot();
+    }
+
+    /**
+     * Run the runner on the {@link StartupExecutor}. If the returned future completes exceptionally, e.g. because it was
+     * cancelled or timed out with {@link CompletableFuture#orTimeout(long, java.util.concurrent.TimeUnit)}, the startup is
+     * interrupted and the process is stopped.
+     */
+    protected CompletableFuture<Void> runAsync() {
+        CompletableFuture<Void> result = new CompletableFuture<>();
+
+        Future<?> task = StartupExecutor.get().submit(() -> {
+            try {
+                this.run();
+                result.complete(null);
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            }
+
+            if (result.isCompletedExceptionally()) {
+                this.stop();
+            }
+        });
+
+        result.whenComplete((value, throwable) -> {
+            if (throwable != null) {
+                task.cancel(true);
+            }
+        });
+
+        return result;
     }
 
     protected void setAlwaysWait(int millis) {
         this.alwaysWait = millis;
     }
 
+    protected void setBackoff(Backoff backoff) {
+        this.backoff = backoff;
+    }
+
     protected void setCheckAddress(URL checkAddress) {
-        this.checkAddress = checkAddress;
+        this.setReadinessStrategy(ReadinessStrategy.http(checkAddress));
+    }
+
+    /**
+     * Set a check address that contains port placeholders. It is resolved as soon as the ports are reserved.
+     */
+    protected void setCheckAddressTemplate(String checkAddressTemplate) {
+        this.checkAddressTemplate = checkAddressTemplate;
     }
 
     protected void setCheckIntervall(int checkIntervall) {
-        this.checkIntervall = checkIntervall;
+        this.setBackoff(Backoff.fixed(checkIntervall));
+    }
+
+    protected void setClassDataSharing(boolean classDataSharingEnabled) {
+        this.classDataSharingEnabled = classDataSharingEnabled;
+    }
+
+    /**
+     * Limit the process to the given number of CPUs, see {@link ResourceLimits}.
+     */
+    protected void setCpuQuota(double cpuQuota) {
+        this.resourceLimits.setCpuQuota(cpuQuota);
+    }
+
+    protected void setCpuSet(String cpuSet) {
+        this.resourceLimits.setCpuSet(cpuSet);
     }
 
     protected void setErr(PrintStream err) {
         this.err = err;
     }
 
+    /**
+     * Start the process with a Java Flight Recorder recording using the given template, e.g. <code>default</code> or
+     * <code>profile</code>. See {@link FlightRecording}.
+     */
+    protected void setFlightRecording(String template) {
+        this.flightRecording = new FlightRecording(template, DEFAULT_FLIGHT_RECORDING_DIR);
+    }
+
+    /**
+     * Run the main class of the Java runnable inside the current JVM instead of starting a process. See
+     * {@link InProcessLauncher}.
+     */
+    protected void setInProcess(boolean inProcess) {
+        this.inProcess = inProcess;
+    }
+
+    protected void setIoWeight(int ioWeight) {
+        this.resourceLimits.setIoWeight(ioWeight);
+    }
+
+    protected void setJpsProcessDiscovery(boolean jpsProcessDiscovery) {
+        this.jpsProcessDiscovery = jpsProcessDiscovery;
+    }
+
+    protected void setMaxForwardedLinesPerSecond(int maxForwardedLinesPerSecond) {
+        this.maxForwardedLinesPerSecond = maxForwardedLinesPerSecond;
+    }
+
+    protected void setMemoryLimit(long memoryLimitBytes) {
+        this.resourceLimits.setMemoryLimitBytes(memoryLimitBytes);
+    }
+
+    protected void setMetricsReportDir(Path metricsReportDir) {
+        this.metricsReportDir = metricsReportDir;
+    }
+
     protected void setOut(PrintStream out) {
         this.out = out;
     }
 
+    protected void setOutputBufferLines(int outputBufferLines) {
+        this.outputBufferLines = outputBufferLines;
+    }
+
     protected void setPreInitializationAction(JarRunnerAction preInitializationConsumer) {
         this.preInitializationAction = preInitializationConsumer;
     }
 
+    protected void setReadinessStrategy(ReadinessStrategy readinessStrategy) {
+        // the last configured readiness check wins, also over a check address template
+        this.checkAddressTemplate = null;
+        this.readinessStrategy = readinessStrategy;
+    }
+
+    /**
+     * Reset the application with the hook instead of restarting it. See {@link #reset()}.
+     */
+    protected void setResetHook(ResetHook resetHook) {
+        this.resetHook = resetHook;
+    }
+
+    /**
+     * Mark the runner as shared by the {@link JarRunnerPool}. Its process key is derived from the launch fingerprint then, so
+     * starting a shared runner with another configuration does not clean up the processes of this one.
+     */
+    protected void setShared(boolean shared) {
+        this.shared = shared;
+    }
+
+    protected void setShutdownTimeout(Duration shutdownTimeout) {
+        this.shutdownTimeout = shutdownTimeout;
+    }
+
+    /**
+     * Snapshot the working directory after the first readiness, so {@link #reset()} can restore it. See
+     * {@link WorkingDirSnapshot}.
+     */
+    protected void setSnapshotReset(boolean snapshotReset) {
+        this.snapshotReset = snapshotReset;
+    }
+
+    /**
+     * Sample heap, GC, thread, CPU and class loading figures of the started process at the given interval. See
+     * {@link JvmTelemetry}.
+     */
+    protected void setTelemetryInterval(Duration telemetryInterval) {
+        this.telemetryInterval = telemetryInterval;
+    }
+
     protected void setWaitForStartupInSeconds(long waitForStartupInSeconds) {
         this.waitForStartupInSeconds = waitForStartupInSeconds;
     }
@@ -207,77 +646,260 @@ public class JarRunner extends ExternalResource {
         this.workingDir = workingDir;
     }
 
+    /**
+     * Start each process in a private copy of the template directory instead of the working dir. See {@link WorkingDirSandbox}.
+     */
+    protected void setWorkingDirSandbox(Path template, SandboxMode mode) {
+        this.sandboxTemplate = template;
+        this.sandboxMode = mode;
+    }
+
+    /**
+     * Start the application inside the current JVM. By default the main class of the Java runnable is started by an
+     * {@link InProcessLauncher}.
+     *
+     * @param onTermination Signals the readiness check that the application has terminated.
+     */
+    protected InProcessApplication startInProcessApplication(List<String> resolvedArguments, Map<String, String> sysProps,
+            ProcessOutput output, Runnable onTermination) throws IOException {
+        InProcessLauncher launcher = new InProcessLauncher(this.javaRunnablePath, this.getName());
+        launcher.start(resolvedArguments, sysProps, output, onTermination);
+        return launcher;
+    }
+
+    protected void stop() {
+        long start = System.nanoTime();
+        if (this.metrics != null && this.process != null) {
+            this.metrics.sample(this.process);
+        }
+
+        if (this.inProcessApplication != null) {
+            this.inProcessApplication.stop(this.shutdownTimeout);
+            this.inProcessApplication = null;
+        }
+
+        this.tryDumpFlightRecording("teardown");
+        this.stopTelemetry();
+
+        this.cleanJavaProcesses();
+        this.deleteArgumentFile();
+        this.releaseControlGroup();
+        if (!this.resetting) {
+            this.releasePorts();
+            this.removeSandbox();
+            this.deleteSnapshot();
+        }
+        this.shutdownMillis = elapsedMillis(start);
+
+        if (this.classDataSharing != null) {
+            this.classDataSharing.onStopped();
+        }
+
+        LOGGER.info("Shut down Java process(es) with key '{}' in {} ms.", this.processKey, this.shutdownMillis);
+
+        if (this.metrics != null) {
+            this.recordPhase(SHUTDOWN, this.shutdownMillis);
+            this.listeners.forEach(listener -> listener.onStopped(this, this.metrics));
+            this.writeMetricsReport();
+        }
+    }
+
+    /**
+     * Like {@link #dumpFlightRecording(String)}, but does nothing if the recording is not enabled or the process is not running
+     * and only logs a failed dump.
+     *
+     * @return The path of the recording or <code>null</code> if nothing was dumped.
+     */
+    protected Path tryDumpFlightRecording(String reason) {
+        if (this.flightRecording == null) {
+            return null;
+        }
+        if (this.process == null || !this.process.isAlive()) {
+            LOGGER.debug("There is no running process to dump the flight recording '{}' of.", reason);
+            return null;
+        }
+
+        try {
+            return this.flightRecording.dump(this.javaHome, this.process, defaultString(this.testName, this.getName()), reason);
+        } catch (IOException e) {
+            LOGGER.warn("Could not dump the flight recording for '{}': {}", reason, e.getMessage());
+            return null;
+        }
+    }
+
     private void alwaysWait() {
         if (this.alwaysWait > 0) {
             sleep(this.alwaysWait);
         }
     }
 
-    private String buildStartCommand() {
-        StringBuilder commandBuilder = new StringBuilder()
-            .append(this.javaHome)
-            .append(separator)
-            .append("bin")
-            .append(separator)
-            .append("java");
+    private void applyResourceLimits() {
+        if (this.controlGroup == null) {
+            return;
+        }
 
-        this.runnableOptions.forEach((option) -> commandBuilder.append(" -").append(quote(option)));
+        // the launch wrapper has already moved the process, unless it could not write into the group
+        try {
+            this.controlGroup.add(this.process);
+        } catch (IOException e) {
+            LOGGER.warn("Could not move the process into the cgroup {}: {}", this.controlGroup.getDirectory(), e.getMessage());
+            this.controlGroup.close();
+            this.controlGroup = null;
+        }
+    }
 
-        this.runnableSysProps.forEach((key, value) -> commandBuilder.append(" -D").append(key).append("=").append(quote(value)));
+    private void checkSnapshotReset() {
+        if (!this.snapshotReset || this.sandboxTemplate != null || this.inProcess) {
+            return;
+        }
 
-        return commandBuilder
-            .append(" -D")
-            .append(this.processKey)
-            .append(" -jar ")
-            .append(this.javaRunnablePath)
-            .append(CHAR_SPACE)
-            .append(join(this.arguments, CHAR_SPACE))
-            .toString();
+        // restoring the default working dir would delete everything else in the project, e.g. the snapshot itself
+        if (DEFAULT_SNAPSHOT_DIR.toAbsolutePath().normalize().startsWith(this.workingDir.toAbsolutePath().normalize())) {
+            fail(
+                "The snapshot reset needs a sandbox or a dedicated working dir, but the working dir is "
+                    + this.workingDir.toAbsolutePath() + ".");
+        }
     }
 
     private void cleanJavaProcesses() {
         try {
-            Map<String, String> pids = this.findJavaProcesses();
-            LOGGER.info("Found {} Java process(es) with key '{}' to be killed.", pids.size(), this.processKey);
+            // processes of other JVMs running the same runnable at the same time are left alone
+            List<ProcessHandle> processes = ProcessRegistry.lookupOwnedOrOrphaned(this.processKey);
+            LOGGER.info("Found {} registered Java process(es) with key '{}' to be killed.", processes.size(), this.processKey);
 
-            for (String eachPid : pids.keySet()) {
-                killProcess(eachPid, pids.get(eachPid));
-            }
-        } catch (InvalidExitValueException | IOException | InterruptedException | TimeoutException e) {
+            this.terminateProcesses(processes);
+            ProcessRegistry.unregister(this.processKey);
+        } catch (IOException e) {
             LOGGER.error("Error while cleaning Java processes.", e);
             fail(e.getMessage());
         }
+
+        if (this.jpsProcessDiscovery) {
+            this.cleanJpsProcesses();
+        }
     }
 
-    private boolean checkAddress() {
-        String urlString = null;
+    private void cleanJpsProcesses() {
+        Map<String, String> pids = this.findJavaProcesses();
         try {
-            urlString = this.checkAddress.toURI().toASCIIString();
-            LOGGER.info("Waiting up to {} seconds for '{}' to respond.", this.waitForStartupInSeconds, urlString);
-
-            long intervalls = this.waitForStartupInSeconds * SECOND_TO_MILLIS / this.checkIntervall;
-            for (int i = 0; i < intervalls; i++) {
-                HttpURLConnection connection = (HttpURLConnection) this.checkAddress.openConnection();
-                connection.setConnectTimeout(DEFAULT_HTTP_TIMEOUTS);
-                connection.setReadTimeout(DEFAULT_HTTP_TIMEOUTS);
-
-                try {
-                    int responseCode = connection.getResponseCode();
-                    LOGGER.info("Accessing '{}': attempt={}, responseCode={}", urlString, i, responseCode);
-                    if (responseCode == HTTP_OK) {
-                        return true;
-                    }
-                } catch (SocketTimeoutException | ConnectException e) {
-                    LOGGER.info("Accessing '{}': attempt={}, exception={}", urlString, i, e.getMessage());
-                }
-                sleep(this.checkIntervall);
+            for (ProcessHandle eachForeignProcess : ProcessRegistry.lookupForeign(this.processKey)) {
+                pids.remove(String.valueOf(eachForeignProcess.pid()));
+            }
+        } catch (IOException e) {
+            fail("Error while reading the process registry: " + e.getMessage());
+        }
+        LOGGER.info("Found {} Java process(es) with key '{}' to be killed using jps.", pids.size(), this.processKey);
+
+        List<ProcessHandle> processes = new ArrayList<>();
+        for (String eachPid : pids.keySet()) {
+            LOGGER.debug("Found process with pid {} using jps (Java command: {})", eachPid, pids.get(eachPid));
+            ProcessHandle.of(Long.parseLong(eachPid)).ifPresent(processes::add);
+        }
+        this.terminateProcesses(processes);
+    }
+
+    private String describeTermination() {
+        if (this.inProcessApplication != null) {
+            if (!this.inProcessApplication.hasTerminated()) {
+                return null;
+            }
+
+            Throwable failure = this.inProcessApplication.getFailure();
+            if (failure == null) {
+                return "The in-process application terminated";
             }
-        } catch (MalformedURLException | URISyntaxException e) {
-            fail("Invalid address '" + urlString + "'. exception=" + e.getMessage());
+            return "The in-process application failed with " + failure;
+        }
+
+        if (this.processExit == null || !this.processExit.isDone()) {
+            return null;
+        }
+        return "The Java process terminated with exit value " + this.processExit.join();
+    }
+
+    private void createControlGroup() {
+        if (this.resourceLimits.isEmpty()) {
+            return;
+        }
+
+        this.controlGroup = ControlGroup.create(this.getName(), this.resourceLimits);
+    }
+
+    private LaunchCommand createLaunchCommand() {
+        LaunchCommand result = new LaunchCommand(this.javaHome);
+
+        result.addJvmOptions(this.runnableOptions.stream().map(option -> "-" + this.resolvePorts(option)).collect(toList()));
+        if (this.classDataSharing != null) {
+            result.addJvmOptions(this.classDataSharing.getJavaOptions());
+        }
+        if (this.flightRecording != null) {
+            result.addJvmOptions(this.flightRecording.getJavaOptions());
+        }
+        this.runnableSysProps.forEach(
+            (key, value) -> result.addJvmOptions(Arrays.asList("-D" + key + "=" + this.resolvePorts(value))));
+
+        return result
+            .addInlineJvmOption("-D" + this.processKey)
+            .setJar(this.javaRunnablePath)
+            .addArguments(this.arguments.stream().map(this::resolvePorts).collect(toList()));
+    }
+
+    private void createSandbox() {
+        try {
+            this.sandbox = WorkingDirSandbox.create(this.sandboxTemplate, DEFAULT_SANDBOX_DIR, this.getName(), this.sandboxMode);
+            LOGGER.info(
+                "Created the sandbox {} ({} from {}).",
+                this.sandbox.getDirectory(),
+                this.sandbox.getMethod(),
+                this.sandboxTemplate);
+        } catch (IOException e) {
+            fail("Could not create a sandbox from " + this.sandboxTemplate.toAbsolutePath() + ": " + e.getMessage());
+        }
+    }
+
+    private void deleteArgumentFile() {
+        if (this.argumentFile == null) {
+            return;
+        }
+
+        try {
+            Files.deleteIfExists(this.argumentFile);
         } catch (IOException e) {
-            fail("Failed to wait for response from '" + urlString + "'. exception=" + e.getMessage());
+            LOGGER.debug("Could not delete the argument file {}: {}", this.argumentFile, e.getMessage());
+        }
+        this.argumentFile = null;
+    }
+
+    private void deleteSnapshot() {
+        if (this.snapshot == null) {
+            return;
+        }
+
+        this.snapshot.delete();
+        this.snapshot = null;
+    }
+
+    private void failIfTerminated() {
+        String termination = this.describeTermination();
+        if (termination == null) {
+            return;
         }
-        return false;
+
+        StringBuilder messageBuilder = new StringBuilder()
+            .append(termination)
+            .append(" after ")
+            .append(elapsedMillis(this.processStartNanos))
+            .append(" ms before ")
+            .append(this.readinessStrategy)
+            .append(" succeeded.");
+
+        List<String> recentLines = this.output.getRecentLines(DEFAULT_FAILURE_OUTPUT_LINES);
+        if (!recentLines.isEmpty()) {
+            messageBuilder.append(" Last ").append(recentLines.size()).append(" line(s) of output:");
+            recentLines.forEach(line -> messageBuilder.append(System.lineSeparator()).append(line));
+        }
+
+        fail(messageBuilder.toString());
     }
 
     private Predicate<String> containsProcessKey() {
@@ -324,11 +946,50 @@ public class JarRunner extends ExternalResource {
         StringBuilder processKeyBuilder = new StringBuilder();
         processKeyBuilder.append(PROCESS_KEY_PREFIX);
         processKeyBuilder.append("_");
-        processKeyBuilder.append(sha1Hex(this.javaRunnablePath.toAbsolutePath().toString()));
+        processKeyBuilder.append(sha1Hex(this.shared ? this.getLaunchFingerprint() : this.getProcessKeySource()));
 
         this.processKey = processKeyBuilder.toString();
     }
 
+    private void initializeClassDataSharing() {
+        if (!this.classDataSharingEnabled) {
+            return;
+        }
+
+        if (this.inProcess) {
+            LOGGER.warn("Class data sharing is not available for runners that run in-process.");
+            return;
+        }
+
+        this.classDataSharing = ClassDataSharing.create(this.getName(), this.javaRunnablePath, this.javaHome);
+    }
+
+    private void installReadinessStrategy() {
+        this.output = new ProcessOutput(this.outputBufferLines);
+        this.readinessContext = new ReadinessContext(this.output, this.getPorts());
+        this.readinessResult = null;
+
+        if (this.readinessStrategy != null) {
+            this.readinessStrategy.install(this.readinessContext);
+        }
+    }
+
+    private void measure(JarRunnerPhase phase, Runnable runnable) {
+        long start = System.nanoTime();
+        runnable.run();
+        this.recordPhase(phase, elapsedMillis(start));
+    }
+
+    private void onReadyForClassDataSharing() {
+        if (this.classDataSharing == null) {
+            return;
+        }
+
+        this.classDataSharing.onReady(this.readinessResult.getStartupMillis());
+        this.classDataSharing.getSavedMillis().ifPresent(
+            savedMillis -> this.metrics.recordValue(CLASS_DATA_SHARING_SAVED_MILLIS, savedMillis));
+    }
+
     private void preInitialization() {
         if (this.preInitializationAction == null) {
             LOGGER.info("There is no pre-initialization action.");
@@ -340,38 +1001,289 @@ public class JarRunner extends ExternalResource {
         LOGGER.info("Pre-initialization action completed");
     }
 
-    private void startProcess() {
-        String command = this.buildStartCommand();
-        CommandLine cmdLine = CommandLine.parse(command);
-        LOGGER.info("Executing " + cmdLine);
+    private void recordPhase(JarRunnerPhase phase, long millis) {
+        this.metrics.record(phase, millis);
+        this.listeners.forEach(listener -> listener.onPhaseCompleted(this, phase, millis));
+    }
+
+    private void releaseControlGroup() {
+        if (this.controlGroup == null) {
+            return;
+        }
+
+        Map<String, Long> statistics = this.controlGroup.readStatistics();
+        LOGGER.info("Resource usage of the process with key '{}': {}", this.processKey, statistics);
+        if (this.metrics != null) {
+            statistics.forEach(this.metrics::recordValue);
+        }
+
+        this.controlGroup.close();
+        this.controlGroup = null;
+    }
+
+    private void releasePorts() {
+        this.portReservations.values().forEach(PortReservation::close);
+        this.portReservations.clear();
+    }
+
+    private void removeSandbox() {
+        if (this.sandbox == null) {
+            return;
+        }
+
+        this.sandbox.remove();
+        this.sandbox = null;
+    }
+
+    private void reservePorts() {
+        Set<String> names = new LinkedHashSet<>(this.portNames);
+        this.runnableOptions.forEach(option -> PortReservation.scanPlaceholders(option, names));
+        this.runnableSysProps.values().forEach(value -> PortReservation.scanPlaceholders(value, names));
+        this.arguments.forEach(argument -> PortReservation.scanPlaceholders(argument, names));
+        PortReservation.scanPlaceholders(this.checkAddressTemplate, names);
 
-        DefaultExecutor executor = new DefaultExecutor();
-        executor.setStreamHandler(new PumpStreamHandler(this.out, this.err));
-        executor.setWorkingDirectory(this.workingDir.toFile());
+        try {
+            for (String eachName : names) {
+                if (!this.portReservations.containsKey(eachName)) {
+                    this.portReservations.put(eachName, PortReservation.reserve());
+                }
+            }
+        } catch (IOException e) {
+            fail("Error while reserving free ports: " + e.getMessage());
+        }
+        LOGGER.info("Reserved ports: {}", this.getPorts());
+
+        if (this.checkAddressTemplate != null) {
+            String checkAddress = this.resolvePorts(this.checkAddressTemplate);
+            try {
+                this.readinessStrategy = ReadinessStrategy.http(new URL(checkAddress));
+            } catch (MalformedURLException e) {
+                fail("Cannot create URL from " + checkAddress);
+            }
+        }
+    }
+
+    /**
+     * @return <code>false</code> if the hook failed and the application has to be restarted instead.
+     */
+    private boolean resetWithHook() {
+        try {
+            this.resetHook.reset(this);
+            LOGGER.info("Reset {} with the reset hook.", this.getName());
+            return true;
+        } catch (IOException e) {
+            if (this.snapshot == null) {
+                fail("The reset hook of " + this.getName() + " failed: " + e.getMessage());
+            }
+
+            LOGGER.warn("The reset hook of {} failed, restarting it instead: {}", this.getName(), e.getMessage());
+            return false;
+        }
+    }
+
+    private String resolvePorts(String value) {
+        return PortReservation.resolvePlaceholders(value, this.getPorts());
+    }
+
+    private void startInProcess() {
+        if (!this.runnableOptions.isEmpty() || !DEFAULT_WORKING_DIR.equals(this.workingDir) || this.sandboxTemplate != null) {
+            LOGGER.warn(
+                "The Java options, the working dir and the sandbox are ignored when running {} in-process.",
+                this.getName());
+        }
+        if (!this.resourceLimits.isEmpty() || this.flightRecording != null || this.telemetryInterval != null) {
+            LOGGER.warn(
+                "The resource limits, the flight recording and the telemetry are ignored when running {} in-process.",
+                this.getName());
+        }
+
+        Map<String, String> sysProps = new LinkedHashMap<>();
+        this.runnableSysProps.forEach((key, value) -> sysProps.put(key, this.resolvePorts(value)));
+        List<String> resolvedArguments = this.arguments.stream().map(this::resolvePorts).collect(toList());
 
         try {
-            DefaultExecuteResultHandler handler = new DefaultExecuteResultHandler();
-            executor.execute(cmdLine, System.getenv(), handler);
+            this.processStartNanos = System.nanoTime();
+            this.inProcessApplication = this.startInProcessApplication(
+                resolvedArguments,
+                sysProps,
+                this.output,
+                this.readinessContext::signal);
+        } catch (IOException e) {
+            fail("Error while starting " + this.javaRunnablePath + " in-process: " + e.getMessage());
+        }
+    }
+
+    private void startProcess() {
+        LaunchCommand command = this.createLaunchCommand();
+        LOGGER.info("Executing " + command);
+
+        try {
+            List<String> tokens = command.toTokens(LaunchCommand.DEFAULT_ARGUMENT_FILE_THRESHOLD);
+            this.argumentFile = command.getArgumentFile();
+
+            this.createControlGroup();
+            if (this.controlGroup != null) {
+                tokens = this.controlGroup.wrap(tokens);
+            }
+
+            this.processStartNanos = System.nanoTime();
+            Process launchedProcess = new ProcessBuilder(tokens).directory(this.getWorkingDir().toFile()).start();
+
+            OutputCapture outputCapture = new OutputCapture(
+                launchedProcess,
+                this.output,
+                this.out,
+                this.err,
+                this.maxForwardedLinesPerSecond);
+            outputCapture.start();
 
-            if (handler.hasResult() && handler.getExitValue() != 0) {
+            // the JDK reaps the process without an extra thread per process, the output is drained before the readiness
+            // check is signalled, so a failure message contains the complete output
+            ReadinessContext context = this.readinessContext;
+            this.processExit = launchedProcess.onExit().thenApplyAsync(exitedProcess -> {
+                outputCapture.stop();
+                context.signal();
+                return exitedProcess.exitValue();
+            }, StartupExecutor.get());
+
+            this.process = launchedProcess.toHandle();
+            ProcessRegistry.register(this.processKey, this.process);
+            this.applyResourceLimits();
+
+            if (this.processExit.isDone() && this.processExit.join() != 0) {
                 fail(
-                    "Error while executing Java command '" + command + ". The command returned with exit value "
-                        + handler.getExitValue() + ". Exception: " + handler.getException());
+                    "Error while executing Java command '" + command + "'. The command returned with exit value "
+                        + this.processExit.join() + ".");
             }
         } catch (IOException e) {
             fail("Error while executing Java command: " + command + " (" + e.getMessage() + ")");
         }
     }
 
-    private void waitForCheckAddress() {
-        if (this.checkAddress == null) {
-            LOGGER.info("No check URL set.");
+    private void startTelemetry() {
+        // attaching sends a signal that may kill a JVM which has not installed its signal handlers yet
+        if (this.telemetryInterval == null || this.process == null) {
+            return;
+        }
+
+        this.telemetry = new JvmTelemetry(this.process, this.telemetryInterval);
+    }
+
+    private void stopTelemetry() {
+        if (this.telemetry == null) {
+            return;
+        }
+
+        this.telemetry.close();
+        if (this.metricsReportDir == null) {
+            return;
+        }
+
+        Path reportFile = this.metricsReportDir.resolve(this.getName() + "-telemetry.csv");
+        try {
+            this.telemetry.getTimeSeries().write(reportFile);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the telemetry report to {}.", reportFile, e);
+        }
+    }
+
+    private void takeSnapshot() {
+        if (!this.snapshotReset || this.snapshot != null || this.inProcess) {
+            return;
+        }
+
+        try {
+            this.snapshot = WorkingDirSnapshot.take(this.getWorkingDir(), DEFAULT_SNAPSHOT_DIR, this.getName());
+            LOGGER.info("Took the snapshot {} of {}.", this.snapshot.getDirectory(), this.getWorkingDir());
+        } catch (IOException e) {
+            fail("Could not take a snapshot of the working dir " + this.getWorkingDir() + ": " + e.getMessage());
+        }
+    }
+
+    private void terminateProcesses(List<ProcessHandle> processes) {
+        List<CompletableFuture<Boolean>> terminations = processes
+            .stream()
+            .map(eachProcess -> ProcessTerminator.terminate(eachProcess, this.shutdownTimeout))
+            .collect(toList());
+
+        for (int i = 0; i < processes.size(); i++) {
+            if (!terminations.get(i).join()) {
+                fail("Could not 'force kill' the process with pid " + processes.get(i).pid());
+            }
+        }
+    }
+
+    private void waitForReadiness() {
+        if (this.readinessStrategy == null) {
+            LOGGER.info("No readiness check set.");
+            return;
+        }
+
+        LOGGER.info(
+            "Waiting up to {} seconds for {} using {}.",
+            this.waitForStartupInSeconds,
+            this.readinessStrategy,
+            this.backoff);
+
+        long deadline = this.processStartNanos + SECONDS.toNanos(this.waitForStartupInSeconds);
+        long waitingMillis = 0;
+        long checkingMillis = 0;
+
+        try {
+            for (int attempt = 1;; attempt++) {
+                this.failIfTerminated();
+
+                long checkStart = System.nanoTime();
+                boolean ready = this.readinessStrategy.isReady();
+                checkingMillis += elapsedMillis(checkStart);
+
+                if (ready) {
+                    this.readinessResult = new ReadinessResult(
+                        attempt,
+                        elapsedMillis(this.processStartNanos),
+                        waitingMillis,
+                        checkingMillis);
+                    LOGGER.info("The Java process is ready: {}", this.readinessResult);
+
+                    long firstResponseNanos = this.readinessContext.getFirstResponseNanos();
+                    if (firstResponseNanos != 0) {
+                        this.recordPhase(FIRST_RESPONSE, (firstResponseNanos - this.processStartNanos) / 1_000_000);
+                    }
+                    this.recordPhase(READY, this.readinessResult.getStartupMillis());
+                    this.readinessStrategy.getProbeLatencies().forEach(
+                        (name, millis) -> this.metrics.recordValue(PROBE_MILLIS_PREFIX + name, millis));
+                    this.onReadyForClassDataSharing();
+                    return;
+                }
+
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0) {
+                    break;
+                }
+
+                waitingMillis += this.readinessContext.awaitSignal(Math.min(this.backoff.nextDelay(attempt), remainingMillis));
+            }
+
+            this.failIfTerminated();
+        } catch (IOException e) {
+            fail("Failed to wait for " + this.readinessStrategy + ". exception=" + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while waiting for " + this.readinessStrategy + ".");
+        }
+
+        fail("The " + this.readinessStrategy + " did not succeed within " + this.waitForStartupInSeconds + " seconds.");
+    }
+
+    private void writeMetricsReport() {
+        if (this.metricsReportDir == null) {
             return;
         }
 
-        boolean isAvailable = this.checkAddress();
-        if (!isAvailable) {
-            fail("The check address '" + this.checkAddress + "' could not be reached.");
+        try {
+            this.metrics.write(this.metricsReportDir);
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the metrics report to {}.", this.metricsReportDir, e);
         }
     }
 }
@@ -24,10 +24,14 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 public class JarRunnerBuilder {
 
     private JarRunner jarRunner;
+    private Duration sharedIdleTimeout;
 
     public JarRunnerBuilder(Path javaRunnablePath) {
         requireNonNull(javaRunnablePath, "The Jar runner needs a path to the Java runnable.");
@@ -65,6 +69,13 @@ public class JarRunnerBuilder {
         return this;
     }
 
+    public JarRunnerBuilder addListener(JarRunnerListener listener) {
+        requireNonNull(listener, "The listener must not be null.");
+
+        this.jarRunner.addListener(listener);
+        return this;
+    }
+
     public JarRunnerBuilder addOptions(String... options) {
         requireNonNull(options, "The option must not be null.");
 
@@ -89,18 +100,166 @@ public class JarRunnerBuilder {
         return this.jarRunner;
     }
 
+    /**
+     * Like {@link #build()} but starts the process in the background. The returned future completes as soon as the process is
+     * ready. Cancelling the future or letting it time out, e.g. with
+     * {@link CompletableFuture#orTimeout(long, java.util.concurrent.TimeUnit)}, stops the process.
+     */
+    public CompletableFuture<JarRunner> buildAsync() {
+        CompletableFuture<Void> startup = this.jarRunner.runAsync();
+
+        CompletableFuture<JarRunner> result = startup.thenApply(value -> this.jarRunner);
+        result.whenComplete((runner, throwable) -> {
+            if (throwable != null) {
+                startup.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Like {@link #build()} but shares the process with all other users of the same configuration in this JVM. See
+     * {@link JarRunnerPool}.
+     */
+    public JarRunner buildShared() {
+        return JarRunnerPool.acquire(this.jarRunner, this.sharedIdleTimeout);
+    }
+
+    /**
+     * Do not write the metrics reports. See {@link #setMetricsReportDir(Path)}.
+     */
+    public JarRunnerBuilder disableMetricsReport() {
+        this.jarRunner.setMetricsReportDir(null);
+        return this;
+    }
+
+    /**
+     * Do not forward the output of the process to the out and error streams. It is still available via
+     * {@link JarRunner#getOutput()}.
+     */
+    public JarRunnerBuilder disableOutputForwarding() {
+        this.jarRunner.setMaxForwardedLinesPerSecond(0);
+        return this;
+    }
+
+    /**
+     * Start the process with a dynamic AppCDS archive (JDK 13+). The first launch creates the archive when the process exits,
+     * all later launches reuse it. See {@link ClassDataSharing}.
+     */
+    public JarRunnerBuilder enableClassDataSharing() {
+        this.jarRunner.setClassDataSharing(true);
+        return this;
+    }
+
+    /**
+     * Start the process with a Java Flight Recorder recording using the <code>profile</code> template. The recording is dumped
+     * into <code>target/surefire-reports</code> at teardown, on {@link JarRunner#dumpFlightRecording(String)} and by a
+     * {@link SlowTestFlightRecorder}, each time together with a summary.
+     */
+    public JarRunnerBuilder enableFlightRecording() {
+        return this.enableFlightRecording(FlightRecording.DEFAULT_TEMPLATE);
+    }
+
+    /**
+     * Like {@link #enableFlightRecording()} with another template, e.g. <code>default</code> or the path of a custom
+     * <code>.jfc</code> file.
+     */
+    public JarRunnerBuilder enableFlightRecording(String template) {
+        requireNonNull(template, "The flight recording template must not be null.");
+
+        this.jarRunner.setFlightRecording(template);
+        return this;
+    }
+
+    /**
+     * Additionally search for stale Java processes with <code>jps</code>. This is only necessary for processes that were
+     * started by older versions of this library because all other processes are found in the {@link ProcessRegistry}.
+     */
+    public JarRunnerBuilder enableJpsProcessDiscovery() {
+        this.jarRunner.setJpsProcessDiscovery(true);
+        return this;
+    }
+
+    /**
+     * Snapshot the working directory after the first start, so {@link JarRunner#reset()} can stop the process, restore only
+     * the changed files and start it again instead of creating a new runner. This needs a working dir sandbox or a dedicated
+     * working dir.
+     */
+    public JarRunnerBuilder enableSnapshotReset() {
+        this.jarRunner.setSnapshotReset(true);
+        return this;
+    }
+
+    /**
+     * Sample heap, GC, thread, CPU and class loading figures of the started process every
+     * {@value JvmTelemetry#DEFAULT_INTERVAL_MILLIS} ms. The samples are available via {@link JarRunner#getTelemetry()} and
+     * written into <code>target/system-test-tools</code> at teardown.
+     */
+    public JarRunnerBuilder enableTelemetry() {
+        return this.enableTelemetry(JvmTelemetry.DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Like {@link #enableTelemetry()} with a custom sampling interval.
+     */
+    public JarRunnerBuilder enableTelemetry(int intervalMillis) {
+        if (intervalMillis < MIN_CHECK_INTERVALL) {
+            fail("The telemetry interval must be at least " + MIN_CHECK_INTERVALL + " ms.");
+        }
+
+        this.jarRunner.setTelemetryInterval(Duration.ofMillis(intervalMillis));
+        return this;
+    }
+
+    protected JarRunner getJarRunner() {
+        return this.jarRunner;
+    }
+
     public JarRunnerBuilder preInitialization(JarRunnerAction action) {
         this.jarRunner.setPreInitializationAction(action);
         return this;
     }
 
+    /**
+     * Reserve a free port under the given name. The port can be used in options, system properties, arguments and the check
+     * address with the placeholder <code>${port:name}</code> and is available via {@link JarRunner#getPort(String)}. Ports
+     * referenced by placeholders are reserved automatically.
+     */
+    public JarRunnerBuilder reservePort(String name) {
+        requireNonNull(name, "The name of the port must not be null.");
+
+        this.jarRunner.addPort(name);
+        return this;
+    }
+
+    /**
+     * Run the Java runnable inside the current JVM instead of starting a separate process. This saves the JVM startup but
+     * ignores the Java options, the working dir and class data sharing. The system properties are set JVM-wide while the
+     * application runs, so other in-process applications and the tests see them too. See {@link InProcessLauncher} and
+     * {@link SystemPropertiesScope}.
+     */
+    public JarRunnerBuilder runInProcess() {
+        this.jarRunner.setInProcess(true);
+        return this;
+    }
+
     public JarRunnerBuilder setAlwaysWait(int millis) {
         this.jarRunner.setAlwaysWait(millis);
         return this;
     }
 
+    /**
+     * @param checkAddress The URL to be checked. It may contain placeholders of reserved ports, e.g.
+     *            <code>http://localhost:${port:http}/health</code>.
+     */
     public JarRunnerBuilder setCheckAdress(String checkAddress) {
-        this.jarRunner.setCheckAddress(createURL(checkAddress));
+        requireNonNull(checkAddress, "The check address must not be null.");
+
+        if (PortReservation.containsPlaceholder(checkAddress)) {
+            this.jarRunner.setCheckAddressTemplate(checkAddress);
+        } else {
+            this.jarRunner.setCheckAddress(createURL(checkAddress));
+        }
         return this;
     }
 
@@ -113,6 +272,29 @@ public class JarRunnerBuilder {
         return this;
     }
 
+    /**
+     * Limit the process to the given number of CPUs, e.g. <code>1.5</code>. Resource limits are applied with cgroups v2 on
+     * Linux and ignored elsewhere, see {@link ControlGroup}.
+     */
+    public JarRunnerBuilder setCpuQuota(double cpus) {
+        if (cpus <= 0) {
+            fail("The CPU quota must be a positive number.");
+        }
+
+        this.jarRunner.setCpuQuota(cpus);
+        return this;
+    }
+
+    /**
+     * Run the process on the given CPUs only, e.g. <code>0-1,4</code>.
+     */
+    public JarRunnerBuilder setCpuSet(String cpus) {
+        requireNonNull(cpus, "The CPU set must not be null.");
+
+        this.jarRunner.setCpuSet(cpus);
+        return this;
+    }
+
     public JarRunnerBuilder setErrorStream(PrintStream err) {
         requireNonNull(err, "The error stream must not be null.");
 
@@ -120,6 +302,63 @@ public class JarRunnerBuilder {
         return this;
     }
 
+    public JarRunnerBuilder setExponentialBackoff(int initialMillis, int maxMillis) {
+        if (initialMillis <= 0 || maxMillis < initialMillis) {
+            fail("The backoff must start with a positive number and must not end before it starts.");
+        }
+
+        this.jarRunner.setBackoff(Backoff.exponential(initialMillis, maxMillis));
+        return this;
+    }
+
+    /**
+     * Set the weight of the process for IO scheduling, between 1 and 10000 (default 100).
+     */
+    public JarRunnerBuilder setIoWeight(int weight) {
+        if (weight < 1 || weight > 10_000) {
+            fail("The IO weight must be between 1 and 10000.");
+        }
+
+        this.jarRunner.setIoWeight(weight);
+        return this;
+    }
+
+    /**
+     * Limit the number of output lines forwarded to the out and error streams per second. Additional lines are only available
+     * via {@link JarRunner#getOutput()}.
+     */
+    public JarRunnerBuilder setMaxForwardedLinesPerSecond(int lines) {
+        if (lines <= 0) {
+            fail("The number of forwarded lines must be a positive number.");
+        }
+
+        this.jarRunner.setMaxForwardedLinesPerSecond(lines);
+        return this;
+    }
+
+    /**
+     * Limit the memory of the process including the heap, metaspace and native memory.
+     */
+    public JarRunnerBuilder setMemoryLimitInMegabytes(int megabytes) {
+        if (megabytes <= 0) {
+            fail("The memory limit must be a positive number.");
+        }
+
+        this.jarRunner.setMemoryLimit(megabytes * 1024L * 1024L);
+        return this;
+    }
+
+    /**
+     * Set the directory the JSON and CSV metrics reports of the runner are written to. Defaults to
+     * <code>target/system-test-tools</code>.
+     */
+    public JarRunnerBuilder setMetricsReportDir(Path reportDir) {
+        requireNonNull(reportDir, "The metrics report dir must not be null.");
+
+        this.jarRunner.setMetricsReportDir(reportDir);
+        return this;
+    }
+
     public JarRunnerBuilder setOutStream(PrintStream out) {
         requireNonNull(out, "The out stream must not be null.");
 
@@ -127,6 +366,58 @@ public class JarRunnerBuilder {
         return this;
     }
 
+    /**
+     * Set the number of output lines of the process that are kept in memory.
+     */
+    public JarRunnerBuilder setOutputBufferLines(int lines) {
+        if (lines <= 0) {
+            fail("The output buffer must be able to keep at least one line.");
+        }
+
+        this.jarRunner.setOutputBufferLines(lines);
+        return this;
+    }
+
+    public JarRunnerBuilder setReadinessStrategy(ReadinessStrategy readinessStrategy) {
+        requireNonNull(readinessStrategy, "The readiness strategy must not be null.");
+
+        this.jarRunner.setReadinessStrategy(readinessStrategy);
+        return this;
+    }
+
+    /**
+     * Let {@link JarRunner#reset()} call the hook instead of restarting the process, e.g.
+     * {@link ResetHook#httpPost(String, Duration)}. If the snapshot reset is enabled too, it is used as fallback when the hook
+     * fails.
+     */
+    public JarRunnerBuilder setResetHook(ResetHook resetHook) {
+        requireNonNull(resetHook, "The reset hook must not be null.");
+
+        this.jarRunner.setResetHook(resetHook);
+        return this;
+    }
+
+    /**
+     * Stop a shared process after it has not been used for the given time. By default it is kept running until the JVM exits.
+     */
+    public JarRunnerBuilder setSharedIdleTimeoutInSeconds(int seconds) {
+        if (seconds < 0) {
+            fail("The idle timeout of shared processes must not be negative.");
+        }
+
+        this.sharedIdleTimeout = Duration.ofSeconds(seconds);
+        return this;
+    }
+
+    public JarRunnerBuilder setShutdownTimeoutInSeconds(int seconds) {
+        if (seconds < 0) {
+            fail("The shutdown timeout must not be negative.");
+        }
+
+        this.jarRunner.setShutdownTimeout(Duration.ofSeconds(seconds));
+        return this;
+    }
+
     public JarRunnerBuilder setWaitForStartupInSeconds(int seconds) {
         if (seconds <= 0) {
             fail("The 'waitForStartup' time must be a positive number.");
@@ -142,4 +433,31 @@ public class JarRunnerBuilder {
         this.jarRunner.setWorkingDir(workDir);
         return this;
     }
+
+    /**
+     * Start each process in a private working directory that is cloned from the template with copy-on-write reflinks, or
+     * copied if the file system does not support them. The sandbox is removed in the background after the process has been
+     * stopped, so parallel runners can use the same template without interfering.
+     */
+    public JarRunnerBuilder setWorkingDirSandbox(Path template) {
+        return this.setWorkingDirSandbox(template, SandboxMode.CLONE);
+    }
+
+    /**
+     * Like {@link #setWorkingDirSandbox(Path)} with another {@link SandboxMode}.
+     */
+    public JarRunnerBuilder setWorkingDirSandbox(Path template, SandboxMode mode) {
+        requireNonNull(template, "The sandbox template must not be null.");
+        requireNonNull(mode, "The sandbox mode must not be null.");
+
+        this.jarRunner.setWorkingDirSandbox(template, mode);
+        return this;
+    }
+
+    public JarRunnerBuilder waitForLogLine(String regex) {
+        requireNonNull(regex, "The log line pattern must not be null.");
+
+        this.jarRunner.setReadinessStrategy(ReadinessStrategy.logLine(Pattern.compile(regex)));
+        return this;
+    }
 }
@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.rules.ExternalResource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Starts several runners concurrently. A runner is started as soon as all runners it depends on are ready, so the total
+ * startup time is the one of the slowest dependency chain. The runners are stopped in reverse order: a runner is stopped after
+ * all runners depending on it have been stopped.
+ */
+public class JarRunnerGroup extends ExternalResource {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarRunnerGroup.class);
+
+    private final Map<String, JarRunner> runners;
+    private final Map<String, List<String>> dependencies;
+    private final Map<String, Boolean> started = new HashMap<>();
+
+    protected JarRunnerGroup(Map<String, JarRunner> runners, Map<String, List<String>> dependencies) {
+        this.runners = new LinkedHashMap<>(runners);
+        this.dependencies = new LinkedHashMap<>(dependencies);
+    }
+
+    private static CompletableFuture<?> allOf(List<CompletableFuture<Void>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()]));
+    }
+
+    private static ExecutorService createExecutor() {
+        return Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "jar-runner-group");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static void rethrow(CompletionException e) {
+        if (e.getCause() instanceof AssertionError) {
+            throw (AssertionError) e.getCause();
+        }
+        throw e;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T extends JarRunner> T get(String name) {
+        JarRunner runner = this.runners.get(name);
+        if (runner == null) {
+            fail("There is no runner with the name '" + name + "'.");
+        }
+        return (T) runner;
+    }
+
+    @Override
+    protected void after() {
+        ExecutorService executor = createExecutor();
+
+        try {
+            Map<String, CompletableFuture<Void>> stops = new HashMap<>();
+            for (String eachName : this.runners.keySet()) {
+                this.stop(eachName, stops, executor);
+            }
+
+            allOf(new ArrayList<>(stops.values())).join();
+        } catch (CompletionException e) {
+            rethrow(e);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    protected void run() {
+        long start = System.nanoTime();
+        ExecutorService executor = createExecutor();
+
+        try {
+            Map<String, CompletableFuture<Void>> starts = new HashMap<>();
+            for (String eachName : this.runners.keySet()) {
+                this.start(eachName, starts, executor);
+            }
+
+            try {
+                allOf(new ArrayList<>(starts.values())).join();
+            } catch (CompletionException e) {
+                // wait for the runners that are still starting before stopping all of them
+                starts.values().forEach(future -> future.exceptionally(ex -> null).join());
+                this.after();
+                rethrow(e);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        LOGGER.info("Started {} runner(s) in {} ms.", this.runners.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private List<String> getDependents(String name) {
+        List<String> result = new ArrayList<>();
+        for (Map.Entry<String, List<String>> eachEntry : this.dependencies.entrySet()) {
+            if (eachEntry.getValue().contains(name)) {
+                result.add(eachEntry.getKey());
+            }
+        }
+        return result;
+    }
+
+    private CompletableFuture<Void> start(String name, Map<String, CompletableFuture<Void>> starts, ExecutorService executor) {
+        CompletableFuture<Void> existing = starts.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        List<CompletableFuture<Void>> dependencyStarts = new ArrayList<>();
+        for (String eachDependency : this.dependencies.get(name)) {
+            dependencyStarts.add(this.start(eachDependency, starts, executor));
+        }
+
+        JarRunner runner = this.runners.get(name);
+        CompletableFuture<Void> result = allOf(dependencyStarts).thenRunAsync(() -> {
+            long start = System.nanoTime();
+            synchronized (this.started) {
+                this.started.put(name, Boolean.TRUE);
+            }
+            runner.run();
+            LOGGER.info("The runner '{}' is ready after {} ms.", name, (System.nanoTime() - start) / 1_000_000);
+        }, executor);
+
+        starts.put(name, result);
+        return result;
+    }
+
+    private CompletableFuture<Void> stop(String name, Map<String, CompletableFuture<Void>> stops, ExecutorService executor) {
+        CompletableFuture<Void> existing = stops.get(name);
+        if (existing != null) {
+            return existing;
+        }
+
+        List<CompletableFuture<Void>> dependentStops = new ArrayList<>();
+        for (String eachDependent : this.getDependents(name)) {
+            dependentStops.add(this.stop(eachDependent, stops, executor));
+        }
+
+        JarRunner runner = this.runners.get(name);
+        CompletableFuture<Void> result = allOf(dependentStops).handleAsync((ignored, e) -> {
+            boolean wasStarted;
+            synchronized (this.started) {
+                wasStarted = this.started.remove(name) != null;
+            }
+            if (wasStarted) {
+                runner.after();
+            }
+            return null;
+        }, executor);
+
+        stops.put(name, result);
+        return result;
+    }
+}
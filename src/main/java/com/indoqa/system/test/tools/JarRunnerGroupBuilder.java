@@ -0,0 +1,98 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JarRunnerGroupBuilder {
+
+    private final Map<String, JarRunner> runners = new LinkedHashMap<>();
+    private final Map<String, List<String>> dependencies = new LinkedHashMap<>();
+
+    private static void requireNonNull(Object object, String message) {
+        if (object == null) {
+            fail(message);
+        }
+    }
+
+    /**
+     * Add a runner to the group. It is started as soon as all runners it depends on are ready.
+     */
+    public JarRunnerGroupBuilder add(String name, JarRunnerBuilder builder, String... dependsOn) {
+        requireNonNull(builder, "The builder must not be null.");
+
+        return this.add(name, builder.getJarRunner(), dependsOn);
+    }
+
+    /**
+     * Add a runner to the group. It is started as soon as all runners it depends on are ready.
+     */
+    public JarRunnerGroupBuilder add(String name, WarRunnerBuilder builder, String... dependsOn) {
+        requireNonNull(builder, "The builder must not be null.");
+
+        return this.add(name, builder.getWarRunner(), dependsOn);
+    }
+
+    public JarRunnerGroup build() {
+        for (Map.Entry<String, List<String>> eachEntry : this.dependencies.entrySet()) {
+            for (String eachDependency : eachEntry.getValue()) {
+                if (!this.runners.containsKey(eachDependency)) {
+                    fail("The runner '" + eachEntry.getKey() + "' depends on the unknown runner '" + eachDependency + "'.");
+                }
+            }
+        }
+
+        for (String eachName : this.runners.keySet()) {
+            this.checkForCycles(eachName, new ArrayList<>());
+        }
+
+        JarRunnerGroup group = new JarRunnerGroup(this.runners, this.dependencies);
+        group.run();
+        return group;
+    }
+
+    private JarRunnerGroupBuilder add(String name, JarRunner runner, String... dependsOn) {
+        requireNonNull(name, "The name of the runner must not be null.");
+        requireNonNull(dependsOn, "The dependencies must not be null.");
+
+        if (this.runners.containsKey(name)) {
+            fail("There is already a runner with the name '" + name + "'.");
+        }
+
+        this.runners.put(name, runner);
+        this.dependencies.put(name, Arrays.asList(dependsOn));
+        return this;
+    }
+
+    private void checkForCycles(String name, List<String> path) {
+        if (path.contains(name)) {
+            fail("There is a dependency cycle: " + String.join(" -> ", path) + " -> " + name);
+        }
+
+        path.add(name);
+        for (String eachDependency : this.dependencies.get(name)) {
+            this.checkForCycles(eachDependency, path);
+        }
+        path.remove(path.size() - 1);
+    }
+}
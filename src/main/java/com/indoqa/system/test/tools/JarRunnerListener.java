@@ -0,0 +1,41 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+/**
+ * Gets notified about the lifecycle of a {@link JarRunner}. All methods are called on the thread that runs the lifecycle.
+ */
+public interface JarRunnerListener {
+
+    /**
+     * Called after a phase has been completed. Phases that do not apply (e.g. {@link JarRunnerPhase#FIRST_RESPONSE} without a
+     * check address) are not reported.
+     *
+     * @param millis The duration of the phase. For {@link JarRunnerPhase#FIRST_RESPONSE} and {@link JarRunnerPhase#READY} it
+     *            is the time since the process was started.
+     */
+    default void onPhaseCompleted(JarRunner runner, JarRunnerPhase phase, long millis) {
+        // do nothing by default
+    }
+
+    /**
+     * Called after the process has been stopped.
+     */
+    default void onStopped(JarRunner runner, JarRunnerMetrics metrics) {
+        // do nothing by default
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The timings of all lifecycle phases of a {@link JarRunner} and the resource usage of its process.
+ */
+public class JarRunnerMetrics {
+
+    private final Map<JarRunnerPhase, Long> phases = new EnumMap<>(JarRunnerPhase.class);
+    private final Map<String, Long> values = new ConcurrentSkipListMap<>();
+    private final Instant started = Instant.now();
+    private final String name;
+
+    private long pid = -1;
+    private OptionalLong peakRssKb = OptionalLong.empty();
+    private OptionalLong cpuMillis = OptionalLong.empty();
+
+    protected JarRunnerMetrics(String name) {
+        this.name = name;
+    }
+
+    private static String toJsonValue(OptionalLong value) {
+        return value.isPresent() ? String.valueOf(value.getAsLong()) : "null";
+    }
+
+    public OptionalLong getCpuMillis() {
+        return this.cpuMillis;
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    public OptionalLong getPeakRssKb() {
+        return this.peakRssKb;
+    }
+
+    public OptionalLong getPhaseMillis(JarRunnerPhase phase) {
+        Long millis = this.phases.get(phase);
+        return millis == null ? OptionalLong.empty() : OptionalLong.of(millis);
+    }
+
+    public Map<JarRunnerPhase, Long> getPhases() {
+        return Collections.unmodifiableMap(this.phases);
+    }
+
+    public long getPid() {
+        return this.pid;
+    }
+
+    public Instant getStarted() {
+        return this.started;
+    }
+
+    /**
+     * @return Additional values recorded by optional features, e.g. the startup time saved by class data sharing.
+     */
+    public Map<String, Long> getValues() {
+        return Collections.unmodifiableMap(this.values);
+    }
+
+    public String toCsv() {
+        StringBuilder csvBuilder = new StringBuilder("name,started,pid,metric,value\n");
+
+        this.phases.forEach((phase, millis) -> this.appendCsvLine(csvBuilder, phase.getLabel() + "Millis", millis));
+        this.peakRssKb.ifPresent(value -> this.appendCsvLine(csvBuilder, "peakRssKb", value));
+        this.cpuMillis.ifPresent(value -> this.appendCsvLine(csvBuilder, "cpuMillis", value));
+        this.values.forEach((name, value) -> this.appendCsvLine(csvBuilder, name, value));
+
+        return csvBuilder.toString();
+    }
+
+    public String toJson() {
+        StringBuilder jsonBuilder = new StringBuilder()
+            .append("{\n")
+            .append("  \"name\": \"")
+            .append(this.name.replace("\\", "\\\\").replace("\"", "\\\""))
+            .append("\",\n")
+            .append("  \"started\": \"")
+            .append(this.started)
+            .append("\",\n")
+            .append("  \"pid\": ")
+            .append(this.pid)
+            .append(",\n")
+            .append("  \"phases\": {");
+
+        String separator = "\n";
+        for (Map.Entry<JarRunnerPhase, Long> eachPhase : this.phases.entrySet()) {
+            jsonBuilder.append(separator).append("    \"").append(eachPhase.getKey().getLabel()).append("Millis\": ").append(
+                eachPhase.getValue());
+            separator = ",\n";
+        }
+
+        jsonBuilder.append("\n  },\n").append("  \"values\": {");
+        separator = "\n";
+        for (Map.Entry<String, Long> eachValue : this.values.entrySet()) {
+            jsonBuilder.append(separator).append("    \"").append(eachValue.getKey()).append("\": ").append(eachValue.getValue());
+            separator = ",\n";
+        }
+
+        return jsonBuilder
+            .append("\n  },\n")
+            .append("  \"peakRssKb\": ")
+            .append(toJsonValue(this.peakRssKb))
+            .append(",\n")
+            .append("  \"cpuMillis\": ")
+            .append(toJsonValue(this.cpuMillis))
+            .append("\n}\n")
+            .toString();
+    }
+
+    @Override
+    public String toString() {
+        return "JarRunnerMetrics [name=" + this.name + ", pid=" + this.pid + ", phases=" + this.phases + ", peakRssKb="
+            + this.peakRssKb + ", cpuMillis=" + this.cpuMillis + ", values=" + this.values + "]";
+    }
+
+    /**
+     * Write this metrics as <code>&lt;name&gt;-metrics.json</code> and <code>&lt;name&gt;-metrics.csv</code> into the given
+     * directory.
+     */
+    public void write(Path reportDir) throws IOException {
+        Files.createDirectories(reportDir);
+        Files.write(reportDir.resolve(this.name + "-metrics.json"), this.toJson().getBytes(UTF_8));
+        Files.write(reportDir.resolve(this.name + "-metrics.csv"), this.toCsv().getBytes(UTF_8));
+    }
+
+    protected void record(JarRunnerPhase phase, long millis) {
+        this.phases.put(phase, millis);
+    }
+
+    protected void recordValue(String name, long value) {
+        this.values.put(name, value);
+    }
+
+    protected void sample(ProcessHandle process) {
+        this.pid = process.pid();
+        this.peakRssKb = ProcessStatistics.getPeakRssKb(process);
+        this.cpuMillis = ProcessStatistics.getCpuMillis(process);
+    }
+
+    private void appendCsvLine(StringBuilder csvBuilder, String metric, long value) {
+        csvBuilder
+            .append(this.name)
+            .append(',')
+            .append(this.started)
+            .append(',')
+            .append(this.pid)
+            .append(',')
+            .append(metric)
+            .append(',')
+            .append(value)
+            .append('\n');
+    }
+}
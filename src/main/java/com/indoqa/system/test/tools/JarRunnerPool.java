@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shares running processes between all users in the same JVM that start the same Java runnable with the same configuration.
+ * Users are reference counted: {@link JarRunner#after()} of a shared runner only releases it. A runner without users is kept
+ * running for the next user until its idle timeout expires or the JVM exits.
+ */
+public final class JarRunnerPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JarRunnerPool.class);
+
+    private static final Map<String, PoolEntry> ENTRIES = new ConcurrentHashMap<>();
+    private static final Map<JarRunner, PoolEntry> ENTRIES_BY_RUNNER = new ConcurrentHashMap<>();
+
+    private static ScheduledExecutorService idleExecutor;
+    private static boolean shutdownHookRegistered;
+
+    private JarRunnerPool() {
+        // hide utility class constructor
+    }
+
+    /**
+     * Return a healthy, running instance with the same launch fingerprint as the given candidate. The candidate is started
+     * only if there is no such instance yet.
+     *
+     * @param idleTimeout The time a runner without users is kept running, <code>null</code> to keep it until the JVM exits.
+     */
+    @SuppressWarnings("unchecked")
+    public static <T extends JarRunner> T acquire(T candidate, Duration idleTimeout) {
+        registerShutdownHook();
+
+        String fingerprint = candidate.getLaunchFingerprint();
+        PoolEntry entry = ENTRIES.computeIfAbsent(fingerprint, PoolEntry::new);
+
+        synchronized (entry) {
+            if (entry.runner != null && !entry.runner.isHealthy()) {
+                LOGGER.warn(
+                    "The shared Java process with fingerprint {} is not healthy anymore. Going to restart it.",
+                    fingerprint);
+                ENTRIES_BY_RUNNER.remove(entry.runner);
+                entry.runner.stop();
+                entry.runner = null;
+            }
+
+            if (entry.runner == null) {
+                LOGGER.info("Starting a new shared Java process with fingerprint {}.", fingerprint);
+                candidate.setShared(true);
+                candidate.run();
+                entry.runner = candidate;
+                entry.users = 0;
+                ENTRIES_BY_RUNNER.put(candidate, entry);
+            } else {
+                LOGGER.info("Reusing the running shared Java process with fingerprint {}.", fingerprint);
+            }
+
+            entry.users++;
+            entry.generation++;
+            entry.idleTimeout = idleTimeout;
+            return (T) entry.runner;
+        }
+    }
+
+    /**
+     * Release one user of the given runner.
+     *
+     * @return <code>false</code> if the runner is not shared and has to be stopped by the caller.
+     */
+    protected static boolean release(JarRunner runner) {
+        PoolEntry entry = ENTRIES_BY_RUNNER.get(runner);
+        if (entry == null) {
+            return false;
+        }
+
+        synchronized (entry) {
+            if (entry.runner != runner || entry.users == 0) {
+                return true;
+            }
+
+            entry.users--;
+            LOGGER.info("Released the shared Java process with fingerprint {}, {} user(s) left.", entry.fingerprint, entry.users);
+
+            if (entry.users == 0 && entry.idleTimeout != null) {
+                long generation = entry.generation;
+                getIdleExecutor().schedule(
+                    () -> stopIdle(entry, generation),
+                    entry.idleTimeout.toMillis(),
+                    TimeUnit.MILLISECONDS);
+            }
+        }
+        return true;
+    }
+
+    private static synchronized ScheduledExecutorService getIdleExecutor() {
+        if (idleExecutor == null) {
+            idleExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "jar-runner-pool-idle");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return idleExecutor;
+    }
+
+    private static synchronized void registerShutdownHook() {
+        if (shutdownHookRegistered) {
+            return;
+        }
+
+        Runtime.getRuntime().addShutdownHook(new Thread(JarRunnerPool::stopAll, "jar-runner-pool-shutdown"));
+        shutdownHookRegistered = true;
+    }
+
+    private static void stopAll() {
+        List<JarRunner> runners = new ArrayList<>(ENTRIES_BY_RUNNER.keySet());
+        ENTRIES_BY_RUNNER.clear();
+        ENTRIES.clear();
+
+        for (JarRunner eachRunner : runners) {
+            try {
+                eachRunner.stop();
+            } catch (AssertionError | RuntimeException e) {
+                LOGGER.error("Error while stopping a shared Java process.", e);
+            }
+        }
+    }
+
+    private static void stopIdle(PoolEntry entry, long generation) {
+        synchronized (entry) {
+            if (entry.runner == null || entry.users > 0 || entry.generation != generation) {
+                return;
+            }
+
+            LOGGER.info("Stopping the idle shared Java process with fingerprint {}.", entry.fingerprint);
+            ENTRIES_BY_RUNNER.remove(entry.runner);
+            try {
+                entry.runner.stop();
+            } catch (AssertionError | RuntimeException e) {
+                LOGGER.error("Error while stopping an idle shared Java process.", e);
+            }
+            entry.runner = null;
+        }
+    }
+
+    private static class PoolEntry {
+
+        private final String fingerprint;
+
+        private JarRunner runner;
+        private int users;
+        private long generation;
+        private Duration idleTimeout;
+
+        public PoolEntry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
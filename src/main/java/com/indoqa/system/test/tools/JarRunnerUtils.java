@@ -24,6 +24,7 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import org.apache.commons.lang3.StringUtils;
 
@@ -41,9 +42,13 @@ public final class JarRunnerUtils {
         return file -> StringUtils.endsWith(file.getFileName().toString(), "-runnable.jar");
     }
 
+    /**
+     * Find the single file directly in the base directory whose file name is accepted by the predicate. The directory is listed
+     * on every call. See {@link ArtifactResolver} for searching directory trees by glob patterns, versions and main classes.
+     */
     public static Path searchJavaRunnable(Path baseDir, Predicate<Path> predicate) {
-        try {
-            List<Path> runnableJars = Files.list(baseDir).filter(file -> predicate.test(file.getFileName())).collect(toList());
+        try (Stream<Path> files = Files.list(baseDir)) {
+            List<Path> runnableJars = files.filter(file -> predicate.test(file.getFileName())).collect(toList());
 
             if (runnableJars.size() == 0) {
                 fail("Cannot find the requested file in '" + baseDir.toAbsolutePath().toString() + "'.");
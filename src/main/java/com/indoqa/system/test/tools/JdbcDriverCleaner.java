@@ -0,0 +1,52 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Deregisters the JDBC drivers of an application loaded by a {@link ChildFirstClassLoader}. {@link DriverManager} only lists
+ * and deregisters the drivers that are visible to the class loader of the caller, so this class is defined in the class
+ * loader of the application and called reflectively, see {@link ChildFirstClassLoader#defineHelperClass(Class)}. It must only
+ * depend on classes of the Java platform.
+ */
+public class JdbcDriverCleaner {
+
+    /**
+     * @return The class names of the deregistered drivers.
+     */
+    public List<String> deregisterDrivers() throws SQLException {
+        List<String> result = new ArrayList<>();
+
+        for (Driver eachDriver : Collections.list(DriverManager.getDrivers())) {
+            // drivers of the parent class loader are visible too, but they are not part of the application
+            if (eachDriver.getClass().getClassLoader() != JdbcDriverCleaner.class.getClassLoader()) {
+                continue;
+            }
+
+            DriverManager.deregisterDriver(eachDriver);
+            result.add(eachDriver.getClass().getName());
+        }
+
+        return result;
+    }
+}
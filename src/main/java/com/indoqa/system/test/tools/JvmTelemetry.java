@@ -0,0 +1,179 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import javax.management.MBeanServerConnection;
+import javax.management.remote.JMXConnector;
+import javax.management.remote.JMXConnectorFactory;
+import javax.management.remote.JMXServiceURL;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.management.OperatingSystemMXBean;
+import com.sun.tools.attach.AttachNotSupportedException;
+import com.sun.tools.attach.VirtualMachine;
+
+/**
+ * Samples the platform MXBeans of a Java process into a {@link TelemetryTimeSeries}. The process is reached through the
+ * attach mechanism, which starts its local JMX agent on demand, so the product does not need any agent or JMX configuration.
+ * Until the process accepts the connection, every sampling attempt simply tries to connect again. The first attempt is made
+ * one interval after the start, the runner starts the telemetry only once the process is ready.
+ */
+public class JvmTelemetry implements AutoCloseable {
+
+    public static final int DEFAULT_INTERVAL_MILLIS = 1_000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JvmTelemetry.class);
+
+    private static final int DEFAULT_CAPACITY = 10_000;
+
+    private final ProcessHandle process;
+    private final TelemetryTimeSeries timeSeries = new TelemetryTimeSeries(DEFAULT_CAPACITY);
+    private final long[] sample = new long[TelemetryMetric.values().length];
+    private final ScheduledExecutorService executor;
+
+    private JMXConnector connector;
+    private MemoryMXBean memory;
+    private List<GarbageCollectorMXBean> garbageCollectors;
+    private ThreadMXBean threads;
+    private OperatingSystemMXBean operatingSystem;
+    private ClassLoadingMXBean classLoading;
+
+    protected JvmTelemetry(ProcessHandle process, Duration interval) {
+        this.process = process;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jvm-telemetry-" + process.pid());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.executor.scheduleAtFixedRate(this::sample, interval.toMillis(), interval.toMillis(), MILLISECONDS);
+    }
+
+    /**
+     * Take a last sample, stop sampling and disconnect from the process.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdownNow();
+        try {
+            this.executor.awaitTermination(1, SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.sample();
+        this.disconnect();
+    }
+
+    public TelemetryTimeSeries getTimeSeries() {
+        return this.timeSeries;
+    }
+
+    private void connect() throws IOException {
+        VirtualMachine virtualMachine;
+        try {
+            virtualMachine = VirtualMachine.attach(String.valueOf(this.process.pid()));
+        } catch (AttachNotSupportedException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        String address;
+        try {
+            address = virtualMachine.startLocalManagementAgent();
+        } finally {
+            virtualMachine.detach();
+        }
+
+        this.connector = JMXConnectorFactory.connect(new JMXServiceURL(address));
+        MBeanServerConnection connection = this.connector.getMBeanServerConnection();
+
+        this.memory = ManagementFactory.getPlatformMXBean(connection, MemoryMXBean.class);
+        this.garbageCollectors = ManagementFactory.getPlatformMXBeans(connection, GarbageCollectorMXBean.class);
+        this.threads = ManagementFactory.getPlatformMXBean(connection, ThreadMXBean.class);
+        this.operatingSystem = ManagementFactory.getPlatformMXBean(connection, OperatingSystemMXBean.class);
+        this.classLoading = ManagementFactory.getPlatformMXBean(connection, ClassLoadingMXBean.class);
+
+        LOGGER.info("Connected to the JMX agent of the process with pid {} at {}", this.process.pid(), address);
+    }
+
+    private void disconnect() {
+        if (this.connector == null) {
+            return;
+        }
+
+        try {
+            this.connector.close();
+        } catch (IOException e) {
+            // the process might have exited already
+        }
+        this.connector = null;
+    }
+
+    private synchronized void sample() {
+        if (!this.process.isAlive()) {
+            return;
+        }
+
+        try {
+            if (this.connector == null) {
+                this.connect();
+            }
+
+            MemoryUsage heap = this.memory.getHeapMemoryUsage();
+            this.sample[TelemetryMetric.HEAP_USED_BYTES.ordinal()] = heap.getUsed();
+            this.sample[TelemetryMetric.HEAP_COMMITTED_BYTES.ordinal()] = heap.getCommitted();
+            this.sample[TelemetryMetric.NON_HEAP_USED_BYTES.ordinal()] = this.memory.getNonHeapMemoryUsage().getUsed();
+
+            long gcCount = 0;
+            long gcTime = 0;
+            for (GarbageCollectorMXBean eachGarbageCollector : this.garbageCollectors) {
+                gcCount += Math.max(0, eachGarbageCollector.getCollectionCount());
+                gcTime += Math.max(0, eachGarbageCollector.getCollectionTime());
+            }
+            this.sample[TelemetryMetric.GC_COUNT.ordinal()] = gcCount;
+            this.sample[TelemetryMetric.GC_TIME_MILLIS.ordinal()] = gcTime;
+
+            this.sample[TelemetryMetric.THREAD_COUNT.ordinal()] = this.threads.getThreadCount();
+            this.sample[TelemetryMetric.DAEMON_THREAD_COUNT.ordinal()] = this.threads.getDaemonThreadCount();
+            this.sample[TelemetryMetric.PEAK_THREAD_COUNT.ordinal()] = this.threads.getPeakThreadCount();
+            this.sample[TelemetryMetric.PROCESS_CPU_MILLIS.ordinal()] = this.operatingSystem.getProcessCpuTime() / 1_000_000;
+            this.sample[TelemetryMetric.LOADED_CLASS_COUNT.ordinal()] = this.classLoading.getLoadedClassCount();
+            this.sample[TelemetryMetric.UNLOADED_CLASS_COUNT.ordinal()] = this.classLoading.getUnloadedClassCount();
+
+            this.timeSeries.add(System.currentTimeMillis(), this.sample);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.debug("Could not sample the process with pid {}: {}", this.process.pid(), e.getMessage());
+            this.disconnect();
+        }
+    }
+}
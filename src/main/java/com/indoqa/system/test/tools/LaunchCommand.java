@@ -0,0 +1,205 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Properties;
+
+/**
+ * The command line of a Java process as a list of tokens. The tokens are passed to the {@link ProcessBuilder} as they are, so
+ * values with spaces or quotes are never split or mangled. If the JVM options get longer than the threshold and the JVM
+ * supports it (Java 9+), they are written into an argument file that is passed as <code>@file</code> instead.
+ */
+public final class LaunchCommand {
+
+    public static final int DEFAULT_ARGUMENT_FILE_THRESHOLD = 4096;
+
+    private final String javaHome;
+    private final List<String> jvmOptions = new ArrayList<>();
+    private final List<String> inlineJvmOptions = new ArrayList<>();
+    private final List<String> arguments = new ArrayList<>();
+    private Path jar;
+    private Path argumentFile;
+
+    public LaunchCommand(String javaHome) {
+        this.javaHome = javaHome;
+    }
+
+    /**
+     * Quote a token for an argument file: backslashes, quotes and line breaks are escaped inside double quotes.
+     */
+    private static String quoteForArgumentFile(String token) {
+        StringBuilder result = new StringBuilder(token.length() + 2).append('"');
+
+        for (char eachChar : token.toCharArray()) {
+            switch (eachChar) {
+                case '\\':
+                    result.append("\\\\");
+                    break;
+                case '"':
+                    result.append("\\\"");
+                    break;
+                case '\n':
+                    result.append("\\n");
+                    break;
+                case '\r':
+                    result.append("\\r");
+                    break;
+                case '\t':
+                    result.append("\\t");
+                    break;
+                default:
+                    result.append(eachChar);
+            }
+        }
+
+        return result.append('"').toString();
+    }
+
+    private static String quoteForDisplay(String token) {
+        if (token.isEmpty() || token.chars().anyMatch(c -> Character.isWhitespace(c) || c == '"' || c == '\'')) {
+            return "'" + token.replace("'", "'\\''") + "'";
+        }
+        return token;
+    }
+
+    /**
+     * Java 9+ launchers expand <code>@file</code> arguments. The version is read from the <code>release</code> file of the Java
+     * home, older JVMs and JVMs without that file are expected to not support argument files.
+     */
+    public static boolean supportsArgumentFiles(String javaHome) {
+        Path releaseFile = Paths.get(javaHome, "release");
+        if (!Files.isRegularFile(releaseFile)) {
+            return false;
+        }
+
+        Properties release = new Properties();
+        try (InputStream inputStream = Files.newInputStream(releaseFile)) {
+            release.load(inputStream);
+        } catch (IOException e) {
+            return false;
+        }
+
+        String version = release.getProperty("JAVA_VERSION", "").replace("\"", "");
+        return !version.isEmpty() && !version.startsWith("1.");
+    }
+
+    public LaunchCommand addArguments(Collection<String> values) {
+        this.arguments.addAll(values);
+        return this;
+    }
+
+    /**
+     * Add an option that always stays on the command line, e.g. the process key that has to be visible to <code>jps</code>.
+     */
+    public LaunchCommand addInlineJvmOption(String option) {
+        this.inlineJvmOptions.add(option);
+        return this;
+    }
+
+    public LaunchCommand addJvmOptions(Collection<String> options) {
+        this.jvmOptions.addAll(options);
+        return this;
+    }
+
+    /**
+     * @return The argument file written by {@link #toTokens(int)} or <code>null</code> if the options were short enough. The
+     *         caller deletes it once the process has been stopped.
+     */
+    public Path getArgumentFile() {
+        return this.argumentFile;
+    }
+
+    public LaunchCommand setJar(Path jar) {
+        this.jar = jar;
+        return this;
+    }
+
+    /**
+     * @return All tokens with the JVM options inlined.
+     */
+    public List<String> toTokens() {
+        List<String> result = new ArrayList<>();
+        result.add(this.getJavaExecutable());
+        result.addAll(this.jvmOptions);
+        this.addRemainingTokens(result);
+        return result;
+    }
+
+    /**
+     * @return The tokens to launch. If the JVM options exceed the threshold, they are written into a temporary argument file
+     *         that is referenced instead, see {@link #getArgumentFile()}.
+     */
+    public List<String> toTokens(int threshold) throws IOException {
+        if (this.getJvmOptionsLength() <= threshold || !supportsArgumentFiles(this.javaHome)) {
+            return this.toTokens();
+        }
+
+        List<String> lines = new ArrayList<>(this.jvmOptions.size());
+        this.jvmOptions.forEach(option -> lines.add(quoteForArgumentFile(option)));
+        this.argumentFile = Files.createTempFile("jar-runner-", ".args");
+        Files.write(this.argumentFile, lines, UTF_8);
+
+        List<String> result = new ArrayList<>();
+        result.add(this.getJavaExecutable());
+        result.add("@" + this.argumentFile.toAbsolutePath());
+        this.addRemainingTokens(result);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (String eachToken : this.toTokens()) {
+            if (result.length() > 0) {
+                result.append(' ');
+            }
+            result.append(quoteForDisplay(eachToken));
+        }
+        return result.toString();
+    }
+
+    private void addRemainingTokens(List<String> tokens) {
+        tokens.addAll(this.inlineJvmOptions);
+        if (this.jar != null) {
+            tokens.add("-jar");
+            tokens.add(this.jar.toString());
+        }
+        tokens.addAll(this.arguments);
+    }
+
+    private String getJavaExecutable() {
+        return Paths.get(this.javaHome, "bin", "java").toString();
+    }
+
+    private int getJvmOptionsLength() {
+        int result = 0;
+        for (String eachOption : this.jvmOptions) {
+            result += eachOption.length() + 1;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class LogLineReadinessStrategy implements ReadinessStrategy {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LogLineReadinessStrategy.class);
+
+    private final Pattern pattern;
+
+    private volatile boolean matched;
+
+    protected LogLineReadinessStrategy(Pattern pattern) {
+        this.pattern = pattern;
+    }
+
+    @Override
+    public void install(ReadinessContext context) {
+        this.matched = false;
+
+        context.addLineListener(line -> {
+            if (!this.matched && this.pattern.matcher(line).find()) {
+                LOGGER.info("Found log line matching '{}': {}", this.pattern, line);
+                this.matched = true;
+                context.signal();
+            }
+        });
+    }
+
+    @Override
+    public boolean isReady() {
+        return this.matched;
+    }
+
+    @Override
+    public String toString() {
+        return "log line matching '" + this.pattern + "'";
+    }
+}
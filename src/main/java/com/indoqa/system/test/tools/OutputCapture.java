@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains stdout and stderr of a process on dedicated threads into a {@link ProcessOutput}. Forwarding the lines to the
+ * configured print streams happens on another thread through a bounded queue and can be rate-limited, so a chatty process is
+ * never slowed down by a slow console. Lines that do not fit into the queue or exceed the rate limit are dropped from the
+ * console but are still available in the {@link ProcessOutput}.
+ */
+public class OutputCapture {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OutputCapture.class);
+
+    private static final int FORWARD_QUEUE_CAPACITY = 10_000;
+    private static final long STOP_TIMEOUT = 2_000;
+
+    private final ProcessOutput output;
+    private final PrintStream out;
+    private final PrintStream err;
+    private final int maxForwardedLinesPerSecond;
+    private final BlockingQueue<ForwardedLine> forwardQueue = new ArrayBlockingQueue<>(FORWARD_QUEUE_CAPACITY);
+    private final List<Thread> drainThreads = new ArrayList<>();
+
+    private final InputStream processOut;
+    private final InputStream processErr;
+    private Thread forwardThread;
+    private volatile boolean stopped;
+    private long droppedLines;
+
+    /**
+     * @param maxForwardedLinesPerSecond The maximum number of lines forwarded per second, 0 to disable forwarding and a negative
+     *            number for no limit.
+     */
+    protected OutputCapture(Process process, ProcessOutput output, PrintStream out, PrintStream err,
+            int maxForwardedLinesPerSecond) throws IOException {
+        // the process does not get any input
+        process.getOutputStream().close();
+
+        this.processOut = process.getInputStream();
+        this.processErr = process.getErrorStream();
+        this.output = output;
+        this.out = out;
+        this.err = err;
+        this.maxForwardedLinesPerSecond = maxForwardedLinesPerSecond;
+    }
+
+    public void start() {
+        this.stopped = false;
+
+        if (this.maxForwardedLinesPerSecond != 0) {
+            this.forwardThread = new Thread(this::forward, "jar-runner-output-forward");
+            this.forwardThread.setDaemon(true);
+            this.forwardThread.start();
+        }
+
+        this.startDrainThread(this.processOut, this.out, "jar-runner-stdout");
+        this.startDrainThread(this.processErr, this.err, "jar-runner-stderr");
+    }
+
+    public void stop() {
+        try {
+            for (Thread eachThread : this.drainThreads) {
+                eachThread.join(STOP_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.stopped = true;
+        this.drainThreads.clear();
+    }
+
+    private void drain(InputStream inputStream, PrintStream target) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, Charset.defaultCharset()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                this.output.addLine(line);
+
+                if (this.forwardThread != null && !this.forwardQueue.offer(new ForwardedLine(line, target))) {
+                    this.dropLine();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Stopped reading the process output: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void dropLine() {
+        this.droppedLines++;
+    }
+
+    private void forward() {
+        long windowStart = System.nanoTime();
+        int linesInWindow = 0;
+
+        try {
+            while (!this.stopped || !this.forwardQueue.isEmpty()) {
+                ForwardedLine line = this.forwardQueue.poll(100, TimeUnit.MILLISECONDS);
+                if (line == null) {
+                    continue;
+                }
+
+                if (System.nanoTime() - windowStart >= TimeUnit.SECONDS.toNanos(1)) {
+                    this.reportDroppedLines(line.target);
+                    windowStart = System.nanoTime();
+                    linesInWindow = 0;
+                }
+
+                if (this.maxForwardedLinesPerSecond > 0 && linesInWindow >= this.maxForwardedLinesPerSecond) {
+                    this.dropLine();
+                    continue;
+                }
+
+                line.target.println(line.text);
+                linesInWindow++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.reportDroppedLines(this.out);
+    }
+
+    private void reportDroppedLines(PrintStream target) {
+        long dropped;
+        synchronized (this) {
+            dropped = this.droppedLines;
+            this.droppedLines = 0;
+        }
+
+        if (dropped > 0) {
+            target.println("[... " + dropped + " line(s) of output not forwarded, see JarRunner.getOutput() ...]");
+        }
+    }
+
+    private void startDrainThread(InputStream inputStream, PrintStream target, String name) {
+        if (inputStream == null) {
+            return;
+        }
+
+        Thread thread = new Thread(() -> this.drain(inputStream, target), name);
+        thread.setDaemon(true);
+        thread.start();
+        this.drainThreads.add(thread);
+    }
+
+    private static class ForwardedLine {
+
+        private final String text;
+        private final PrintStream target;
+
+        public ForwardedLine(String text, PrintStream target) {
+            this.text = text;
+            this.target = target;
+        }
+    }
+}
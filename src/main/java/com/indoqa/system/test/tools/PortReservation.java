@@ -0,0 +1,189 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A free port that is reserved for a runner. The port is taken from the ephemeral range of the operating system and
+ * additionally locked with a file lock in the {@link CacheDirectory}, so that concurrently running JVMs (e.g. several surefire
+ * forks) never hand out the same port while the process that is going to bind it is still starting up. On file systems with
+ * file keys (inodes), the lock file is deleted when the reservation is closed; elsewhere it is kept for the next reservation.
+ */
+public final class PortReservation implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PortReservation.class);
+
+    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("\\$\\{port:([^}]+)\\}");
+    private static final int MAX_ATTEMPTS = 100;
+
+    private final int port;
+    // null if the file system has no file keys and the lock file is kept
+    private final Path lockFile;
+    private final FileChannel lockChannel;
+    private final FileLock lock;
+
+    private PortReservation(int port, Path lockFile, FileChannel lockChannel, FileLock lock) {
+        this.port = port;
+        this.lockFile = lockFile;
+        this.lockChannel = lockChannel;
+        this.lock = lock;
+    }
+
+    public static boolean containsPlaceholder(String value) {
+        return PLACEHOLDER_PATTERN.matcher(value).find();
+    }
+
+    public static String placeholder(String name) {
+        return "${port:" + name + "}";
+    }
+
+    public static PortReservation reserve() throws IOException {
+        Path lockDir = CacheDirectory.get("ports");
+
+        for (int i = 0; i < MAX_ATTEMPTS; i++) {
+            int candidate = findFreePort();
+
+            Path lockFile = lockDir.resolve(candidate + ".lock");
+            try {
+                Object fileKey = createLockFile(lockFile);
+                FileChannel channel = FileChannel.open(lockFile, WRITE);
+                try {
+                    FileLock lock = channel.tryLock();
+                    // the previous owner deletes the file while holding the lock, so a channel opened before that got the lock
+                    // on a deleted file unless the path still leads to the same file
+                    if (lock != null && (fileKey == null || hasFileKey(lockFile, fileKey))) {
+                        LOGGER.debug("Reserved port {}.", candidate);
+                        return new PortReservation(candidate, fileKey == null ? null : lockFile, channel, lock);
+                    }
+                    if (lock != null) {
+                        lock.release();
+                    }
+                } catch (OverlappingFileLockException e) {
+                    // reserved by this JVM already
+                }
+                channel.close();
+            } catch (NoSuchFileException e) {
+                // deleted by its previous owner in the meantime
+            }
+        }
+
+        throw new IOException("Could not reserve a free port after " + MAX_ATTEMPTS + " attempts.");
+    }
+
+    /**
+     * Replace all placeholders of the form <code>${port:name}</code> with the given ports.
+     */
+    public static String resolvePlaceholders(String value, Map<String, Integer> ports) {
+        if (value == null || value.indexOf('$') == -1) {
+            return value;
+        }
+
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(value);
+        StringBuffer result = new StringBuffer();
+        while (matcher.find()) {
+            Integer port = ports.get(matcher.group(1));
+            if (port == null) {
+                throw new IllegalArgumentException("There is no reserved port with the name '" + matcher.group(1) + "'.");
+            }
+            matcher.appendReplacement(result, String.valueOf(port));
+        }
+        matcher.appendTail(result);
+        return result.toString();
+    }
+
+    /**
+     * Add the names of all port placeholders used in the given value.
+     */
+    public static void scanPlaceholders(String value, Collection<String> names) {
+        if (value == null) {
+            return;
+        }
+
+        Matcher matcher = PLACEHOLDER_PATTERN.matcher(value);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+    }
+
+    private static int findFreePort() throws IOException {
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            return serverSocket.getLocalPort();
+        }
+    }
+
+    /**
+     * @return The file key of the lock file or <code>null</code> if the file system does not provide file keys.
+     */
+    private static Object createLockFile(Path lockFile) throws IOException {
+        try {
+            Files.createFile(lockFile);
+        } catch (FileAlreadyExistsException e) {
+            // reserved before
+        }
+        return Files.readAttributes(lockFile, BasicFileAttributes.class).fileKey();
+    }
+
+    private static boolean hasFileKey(Path lockFile, Object fileKey) {
+        try {
+            return fileKey.equals(Files.readAttributes(lockFile, BasicFileAttributes.class).fileKey());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            // delete the file while holding the lock, so that nobody else locks it in the meantime
+            if (this.lockFile != null) {
+                Files.deleteIfExists(this.lockFile);
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not delete the lock file {}: {}", this.lockFile, e.getMessage());
+        }
+
+        try {
+            this.lock.release();
+            this.lockChannel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not release the reservation of port {}.", this.port, e);
+        }
+    }
+
+    public int getPort() {
+        return this.port;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * The most recent lines written by a process to stdout and stderr, kept in a bounded ring buffer.
+ */
+public class ProcessOutput {
+
+    private final String[] lines;
+    private final List<Consumer<String>> lineListeners = new CopyOnWriteArrayList<>();
+
+    private long lineCount;
+
+    protected ProcessOutput(int capacity) {
+        this.lines = new String[capacity];
+    }
+
+    public void addLineListener(Consumer<String> lineListener) {
+        this.lineListeners.add(lineListener);
+    }
+
+    /**
+     * Wait until a line matching the given pattern has been written. Lines that are still in the buffer are considered too.
+     *
+     * @return The matching line or an empty optional if no such line was written within the timeout.
+     */
+    public Optional<String> awaitLine(Pattern pattern, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+
+        synchronized (this) {
+            long position = this.getFirstPosition();
+            while (true) {
+                for (position = Math.max(position, this.getFirstPosition()); position < this.lineCount; position++) {
+                    String line = this.getLine(position);
+                    if (pattern.matcher(line).find()) {
+                        return Optional.of(line);
+                    }
+                }
+
+                long remainingMillis = (deadline - System.nanoTime()) / 1_000_000;
+                if (remainingMillis <= 0) {
+                    return Optional.empty();
+                }
+                this.wait(remainingMillis);
+            }
+        }
+    }
+
+    public boolean contains(Pattern pattern) {
+        return this.getLines().stream().anyMatch(line -> pattern.matcher(line).find());
+    }
+
+    /**
+     * @return The number of lines written so far, including those that have already been dropped from the buffer.
+     */
+    public synchronized long getLineCount() {
+        return this.lineCount;
+    }
+
+    public List<String> getLines() {
+        return this.getRecentLines(this.lines.length);
+    }
+
+    public synchronized List<String> getRecentLines(int count) {
+        long start = Math.max(this.getFirstPosition(), this.lineCount - count);
+
+        List<String> result = new ArrayList<>();
+        for (long position = start; position < this.lineCount; position++) {
+            result.add(this.getLine(position));
+        }
+        return result;
+    }
+
+    protected void addLine(String line) {
+        synchronized (this) {
+            this.lines[(int) (this.lineCount % this.lines.length)] = line;
+            this.lineCount++;
+            this.notifyAll();
+        }
+
+        for (Consumer<String> eachListener : this.lineListeners) {
+            eachListener.accept(line);
+        }
+    }
+
+    private long getFirstPosition() {
+        return Math.max(0, this.lineCount - this.lines.length);
+    }
+
+    private String getLine(long position) {
+        return this.lines[(int) (position % this.lines.length)];
+    }
+}
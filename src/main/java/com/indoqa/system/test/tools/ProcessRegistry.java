@@ -0,0 +1,227 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Keeps track of the processes started by {@link JarRunner}s in a small on-disk registry so that they can be found again by
+ * their process key, even if they were started by a JVM that has been aborted in the meantime. Every JVM registers its
+ * processes in a file of its own, so that JVMs running the same runnable at the same time (e.g. several surefire forks) only
+ * clean up their own processes and those of JVMs that are gone.
+ */
+public final class ProcessRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessRegistry.class);
+
+    private static final Path DEFAULT_REGISTRY_DIR = Paths.get(
+        System.getProperty("java.io.tmpdir"),
+        "indoqa-system-test-tools",
+        "processes");
+    private static final String FILE_SUFFIX = ".pid";
+    private static final String SEPARATOR = ";";
+    private static final String OWNER_SEPARATOR = ".";
+    private static final String OWNER_START_SEPARATOR = "-";
+    private static final long UNKNOWN_START = -1;
+    private static final String CURRENT_OWNER = ProcessHandle.current().pid()
+        + OWNER_START_SEPARATOR
+        + getStartMillis(ProcessHandle.current());
+
+    private ProcessRegistry() {
+        // hide utility class constructor
+    }
+
+    /**
+     * Find all registered processes for the given key that are still alive, no matter which JVM registered them. Entries
+     * whose pid has been reused by another process are ignored.
+     */
+    public static List<ProcessHandle> lookup(String processKey) throws IOException {
+        return lookup(processKey, owner -> true);
+    }
+
+    /**
+     * Like {@link #lookup(String)}, but only the processes registered by other JVMs that are still running.
+     */
+    public static List<ProcessHandle> lookupForeign(String processKey) throws IOException {
+        return lookup(processKey, owner -> !isCurrentOwner(owner) && isOwnerAlive(owner));
+    }
+
+    /**
+     * Like {@link #lookup(String)}, but only the processes registered by the current JVM or by JVMs that are not running
+     * anymore. These are the processes a runner may clean up.
+     */
+    public static List<ProcessHandle> lookupOwnedOrOrphaned(String processKey) throws IOException {
+        return lookup(processKey, owner -> isCurrentOwner(owner) || !isOwnerAlive(owner));
+    }
+
+    public static void register(String processKey, ProcessHandle process) throws IOException {
+        Path registryFile = getRegistryFile(processKey, CURRENT_OWNER);
+        Files.createDirectories(registryFile.getParent());
+
+        long start = getStartMillis(process);
+        String line = process.pid() + SEPARATOR + start + System.lineSeparator();
+        Files.write(registryFile, line.getBytes(UTF_8), CREATE, WRITE, APPEND);
+
+        LOGGER.debug("Registered process with pid {} for key '{}'.", process.pid(), processKey);
+    }
+
+    /**
+     * Remove the entries of the current JVM and of JVMs that are not running anymore. The entries of other running JVMs are
+     * kept.
+     */
+    public static void unregister(String processKey) throws IOException {
+        for (Map.Entry<Path, String> eachRegistryFile : findRegistryFiles(processKey).entrySet()) {
+            String owner = eachRegistryFile.getValue();
+            if (isCurrentOwner(owner) || !isOwnerAlive(owner)) {
+                Files.deleteIfExists(eachRegistryFile.getKey());
+            }
+        }
+    }
+
+    /**
+     * @return The registry files of the key with their owners. The owner of a registry file written by an older version is
+     *         <code>null</code>.
+     */
+    private static Map<Path, String> findRegistryFiles(String processKey) throws IOException {
+        Map<Path, String> result = new LinkedHashMap<>();
+        if (!Files.isDirectory(DEFAULT_REGISTRY_DIR)) {
+            return result;
+        }
+
+        String ownedPrefix = processKey + OWNER_SEPARATOR;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(DEFAULT_REGISTRY_DIR, processKey + "*" + FILE_SUFFIX)) {
+            for (Path eachFile : files) {
+                String fileName = eachFile.getFileName().toString();
+                if (fileName.equals(processKey + FILE_SUFFIX)) {
+                    result.put(eachFile, null);
+                } else if (fileName.startsWith(ownedPrefix)) {
+                    result.put(eachFile, fileName.substring(ownedPrefix.length(), fileName.length() - FILE_SUFFIX.length()));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Path getRegistryFile(String processKey, String owner) {
+        return DEFAULT_REGISTRY_DIR.resolve(processKey + OWNER_SEPARATOR + owner + FILE_SUFFIX);
+    }
+
+    private static long getStartMillis(ProcessHandle process) {
+        Optional<Instant> startInstant = process.info().startInstant();
+        return startInstant.map(Instant::toEpochMilli).orElse(UNKNOWN_START);
+    }
+
+    private static boolean isCurrentOwner(String owner) {
+        return CURRENT_OWNER.equals(owner);
+    }
+
+    private static boolean isNumber(String value) {
+        try {
+            Long.parseLong(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private static boolean isOwnerAlive(String owner) {
+        if (owner == null) {
+            return false;
+        }
+
+        String[] parts = owner.split(OWNER_START_SEPARATOR, 2);
+        if (parts.length != 2 || !isNumber(parts[0]) || !isNumber(parts[1])) {
+            return false;
+        }
+
+        long ownerStart = Long.parseLong(parts[1]);
+        return ProcessHandle
+            .of(Long.parseLong(parts[0]))
+            .filter(ProcessHandle::isAlive)
+            .filter(handle -> isSameProcess(handle, ownerStart))
+            .isPresent();
+    }
+
+    private static boolean isSameProcess(ProcessHandle process, long registeredStart) {
+        if (registeredStart == UNKNOWN_START) {
+            return true;
+        }
+
+        long actualStart = getStartMillis(process);
+        return actualStart == UNKNOWN_START || actualStart == registeredStart;
+    }
+
+    private static List<ProcessHandle> lookup(String processKey, Predicate<String> ownerFilter) throws IOException {
+        List<ProcessHandle> result = new ArrayList<>();
+        for (Map.Entry<Path, String> eachRegistryFile : findRegistryFiles(processKey).entrySet()) {
+            if (ownerFilter.test(eachRegistryFile.getValue())) {
+                readEntries(processKey, eachRegistryFile.getKey(), result);
+            }
+        }
+        return result;
+    }
+
+    private static void readEntries(String processKey, Path registryFile, List<ProcessHandle> result) throws IOException {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(registryFile, UTF_8);
+        } catch (NoSuchFileException e) {
+            // unregistered in the meantime
+            return;
+        }
+
+        for (String eachLine : lines) {
+            if (StringUtils.isBlank(eachLine)) {
+                continue;
+            }
+
+            String[] parts = eachLine.split(SEPARATOR);
+            if (parts.length != 2 || !isNumber(parts[0]) || !isNumber(parts[1])) {
+                // e.g. cut short by a JVM that was killed while registering
+                LOGGER.debug("Skipping the malformed registry entry '{}' for key '{}'.", eachLine, processKey);
+                continue;
+            }
+
+            long registeredStart = Long.parseLong(parts[1]);
+            ProcessHandle.of(Long.parseLong(parts[0]))
+                .filter(ProcessHandle::isAlive)
+                .filter(handle -> isSameProcess(handle, registeredStart))
+                .ifPresent(result::add);
+        }
+    }
+}
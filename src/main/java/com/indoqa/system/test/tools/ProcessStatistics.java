@@ -0,0 +1,69 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * Resource usage of a running process. The peak resident set size is only available on Linux.
+ */
+public final class ProcessStatistics {
+
+    private static final Path PROC = Paths.get("/proc");
+    private static final String PEAK_RSS_PREFIX = "VmHWM:";
+
+    private ProcessStatistics() {
+        // hide utility class constructor
+    }
+
+    public static OptionalLong getCpuMillis(ProcessHandle process) {
+        return process.info().totalCpuDuration().map(Duration::toMillis).map(OptionalLong::of).orElse(OptionalLong.empty());
+    }
+
+    /**
+     * @return The peak resident set size in kilobytes as reported by <code>/proc/&lt;pid&gt;/status</code>.
+     */
+    public static OptionalLong getPeakRssKb(ProcessHandle process) {
+        Path status = PROC.resolve(String.valueOf(process.pid())).resolve("status");
+        if (!Files.isReadable(status)) {
+            return OptionalLong.empty();
+        }
+
+        try {
+            List<String> lines = Files.readAllLines(status, US_ASCII);
+            for (String eachLine : lines) {
+                if (eachLine.startsWith(PEAK_RSS_PREFIX)) {
+                    String value = StringUtils.removeEnd(eachLine.substring(PEAK_RSS_PREFIX.length()).trim(), "kB").trim();
+                    return OptionalLong.of(Long.parseLong(value));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // the process might have exited in the meantime
+        }
+        return OptionalLong.empty();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static java.util.stream.Collectors.toList;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Shuts down a process in three steps: request a graceful termination (SIGTERM on Unix), wait for the process to exit and
+ * finally kill the process and all of its descendants forcibly.
+ */
+public final class ProcessTerminator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProcessTerminator.class);
+
+    private static final long FORCED_KILL_TIMEOUT = SECONDS.toMillis(5);
+
+    private ProcessTerminator() {
+        // hide utility class constructor
+    }
+
+    /**
+     * @return A future that completes with <code>true</code> once the process and all of its descendants have exited or with
+     *         <code>false</code> if some of them are still alive even after being killed forcibly.
+     */
+    public static CompletableFuture<Boolean> terminate(ProcessHandle process, Duration gracefulTimeout) {
+        // the descendants have to be collected now, they are re-parented as soon as the process exits
+        List<ProcessHandle> tree = new ArrayList<>(process.descendants().collect(toList()));
+        tree.add(process);
+
+        LOGGER.info(
+            "Going to terminate process with pid {} and {} descendant(s) (Java command: {})",
+            process.pid(),
+            tree.size() - 1,
+            process.info().commandLine().orElse("unknown command"));
+
+        process.destroy();
+
+        return process
+            .onExit()
+            .thenApply(exited -> Boolean.TRUE)
+            .completeOnTimeout(Boolean.FALSE, gracefulTimeout.toMillis(), MILLISECONDS)
+            .thenCompose(exitedGracefully -> {
+                if (!exitedGracefully) {
+                    LOGGER.warn(
+                        "The process with pid {} did not exit within {} ms. Going to kill it forcibly.",
+                        process.pid(),
+                        gracefulTimeout.toMillis());
+                }
+                return killForcibly(tree);
+            });
+    }
+
+    private static CompletableFuture<Boolean> killForcibly(List<ProcessHandle> tree) {
+        List<CompletableFuture<ProcessHandle>> exits = new ArrayList<>();
+
+        for (ProcessHandle eachProcess : tree) {
+            if (!eachProcess.isAlive()) {
+                continue;
+            }
+
+            LOGGER.info("Killing process with pid {} forcibly.", eachProcess.pid());
+            eachProcess.destroyForcibly();
+            exits.add(eachProcess.onExit());
+        }
+
+        return CompletableFuture
+            .allOf(exits.toArray(new CompletableFuture<?>[exits.size()]))
+            .thenApply(exited -> Boolean.TRUE)
+            .completeOnTimeout(Boolean.FALSE, FORCED_KILL_TIMEOUT, MILLISECONDS);
+    }
+}
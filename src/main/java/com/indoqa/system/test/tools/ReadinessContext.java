@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Connects a {@link ReadinessStrategy} with the process started by a {@link JarRunner}. Strategies can listen to the output of
+ * the process and wake up the readiness check immediately instead of waiting for the next check attempt.
+ * The context also signals when the process terminates.
+ */
+public class ReadinessContext {
+
+    private final ProcessOutput output;
+    private final Map<String, Integer> ports;
+    private final Object monitor = new Object();
+
+    private boolean signalled;
+    private volatile long firstResponseNanos;
+
+    protected ReadinessContext(ProcessOutput output, Map<String, Integer> ports) {
+        this.output = output;
+        this.ports = ports;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    public void addLineListener(Consumer<String> lineListener) {
+        this.output.addLineListener(lineListener);
+    }
+
+    public ProcessOutput getOutput() {
+        return this.output;
+    }
+
+    /**
+     * @return The value with all port placeholders replaced by the reserved ports, see {@link PortReservation}.
+     */
+    public String resolvePorts(String value) {
+        return PortReservation.resolvePlaceholders(value, this.ports);
+    }
+
+    /**
+     * Called by strategies whenever the process responded to a check, even if it is not ready yet.
+     */
+    public void responded() {
+        if (this.firstResponseNanos == 0) {
+            this.firstResponseNanos = System.nanoTime();
+        }
+    }
+
+    public void signal() {
+        synchronized (this.monitor) {
+            this.signalled = true;
+            this.monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until either the given time has passed or {@link #signal()} was called.
+     *
+     * @return The time in milliseconds actually spent waiting.
+     */
+    protected long awaitSignal(long millis) throws InterruptedException {
+        long start = System.nanoTime();
+
+        synchronized (this.monitor) {
+            long remaining = millis;
+            while (!this.signalled && remaining > 0) {
+                this.monitor.wait(remaining);
+                remaining = millis - elapsedMillis(start);
+            }
+            this.signalled = false;
+        }
+
+        return elapsedMillis(start);
+    }
+
+    /**
+     * @return The {@link System#nanoTime()} of the first response or 0 if the process has not responded yet.
+     */
+    protected long getFirstResponseNanos() {
+        return this.firstResponseNanos;
+    }
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * A single non-blocking check of a {@link CompositeReadinessStrategy}.
+ */
+public interface ReadinessProbe {
+
+    static ReadinessProbe custom(String name, Callable<Boolean> check) {
+        return new CustomReadinessProbe(name, check);
+    }
+
+    /**
+     * @param address The URL to be checked. It may contain placeholders of reserved ports.
+     * @param expectedStatus Decides whether the status code of the response is good enough.
+     * @param bodyPredicate Decides whether the body of the response is good enough or <code>null</code> to ignore the body.
+     */
+    static ReadinessProbe http(String name, String address, IntPredicate expectedStatus, Predicate<String> bodyPredicate) {
+        return new HttpReadinessProbe(name, address, expectedStatus, bodyPredicate);
+    }
+
+    /**
+     * @param address The <code>host:port</code> to connect to. It may contain placeholders of reserved ports.
+     */
+    static ReadinessProbe tcp(String name, String address) {
+        return new TcpReadinessProbe(name, address);
+    }
+
+    String getName();
+
+    /**
+     * Called once before the process is started.
+     */
+    default void install(ReadinessContext context) {
+        // nothing to install by default
+    }
+
+    /**
+     * Start a single check. The returned future must complete within the given timeout and must not complete exceptionally.
+     *
+     * @return A future that completes with <code>true</code> if the probe succeeded.
+     */
+    CompletableFuture<Boolean> probe(Duration timeout);
+}
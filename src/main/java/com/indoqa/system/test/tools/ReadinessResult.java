@@ -0,0 +1,63 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+public class ReadinessResult {
+
+    private final int attempts;
+    private final long startupMillis;
+    private final long waitingMillis;
+    private final long checkingMillis;
+
+    protected ReadinessResult(int attempts, long startupMillis, long waitingMillis, long checkingMillis) {
+        this.attempts = attempts;
+        this.startupMillis = startupMillis;
+        this.waitingMillis = waitingMillis;
+        this.checkingMillis = checkingMillis;
+    }
+
+    public int getAttempts() {
+        return this.attempts;
+    }
+
+    /**
+     * @return The time spent inside the readiness checks.
+     */
+    public long getCheckingMillis() {
+        return this.checkingMillis;
+    }
+
+    /**
+     * @return The time between starting the process and the successful readiness check.
+     */
+    public long getStartupMillis() {
+        return this.startupMillis;
+    }
+
+    /**
+     * @return The time spent waiting between the readiness checks.
+     */
+    public long getWaitingMillis() {
+        return this.waitingMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "startup=" + this.startupMillis + " ms, attempts=" + this.attempts + ", waiting=" + this.waitingMillis
+            + " ms, checking=" + this.checkingMillis + " ms";
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.net.URL;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Decides whether the process started by a {@link JarRunner} is ready to be used by the tests.
+ */
+public interface ReadinessStrategy {
+
+    static ReadinessStrategy http(URL checkAddress) {
+        return new HttpReadinessStrategy(checkAddress);
+    }
+
+    static ReadinessStrategy http(URL checkAddress, Duration timeout) {
+        return new HttpReadinessStrategy(checkAddress, timeout);
+    }
+
+    static ReadinessStrategy logLine(Pattern pattern) {
+        return new LogLineReadinessStrategy(pattern);
+    }
+
+    /**
+     * @return The latency in milliseconds of each probe in the last check, see {@link CompositeReadinessStrategy}.
+     */
+    default Map<String, Long> getProbeLatencies() {
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Called once before the process is started.
+     */
+    default void install(ReadinessContext context) {
+        // nothing to install by default
+    }
+
+    /**
+     * Perform a single readiness check.
+     *
+     * @return <code>true</code> if the process is ready.
+     * @throws IOException if the check failed in a way that cannot be fixed by waiting.
+     */
+    boolean isReady() throws IOException;
+}
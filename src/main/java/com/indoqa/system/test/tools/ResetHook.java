@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.time.Duration;
+
+/**
+ * Brings a running application back into its initial state without restarting it, see {@link JarRunner#reset()}.
+ */
+@FunctionalInterface
+public interface ResetHook {
+
+    /**
+     * Send a POST request to the given address and expect a 2xx response. The address may contain port placeholders like
+     * <code>${port:http}</code>.
+     */
+    static ResetHook httpPost(String addressTemplate, Duration timeout) {
+        return runner -> {
+            URL address = new URL(PortReservation.resolvePlaceholders(addressTemplate, runner.getPorts()));
+
+            HttpURLConnection connection = (HttpURLConnection) address.openConnection();
+            connection.setConnectTimeout((int) timeout.toMillis());
+            connection.setReadTimeout((int) timeout.toMillis());
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+
+            try {
+                connection.getOutputStream().close();
+                int responseCode = connection.getResponseCode();
+                if (responseCode < 200 || responseCode > 299) {
+                    throw new IOException("The reset request to '" + address + "' returned " + responseCode + ".");
+                }
+            } finally {
+                connection.disconnect();
+            }
+        };
+    }
+
+    void reset(JarRunner runner) throws IOException;
+}
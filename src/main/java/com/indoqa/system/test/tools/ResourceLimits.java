@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+/**
+ * CPU, memory and IO limits of a process started by a {@link JarRunner}. They are applied with a {@link ControlGroup}.
+ */
+public class ResourceLimits {
+
+    private double cpuQuota;
+    private String cpuSet;
+    private long memoryLimitBytes;
+    private int ioWeight;
+
+    /**
+     * @return The number of CPUs the process may use or 0 if it is not limited.
+     */
+    public double getCpuQuota() {
+        return this.cpuQuota;
+    }
+
+    /**
+     * @return The CPUs the process may run on, e.g. <code>0-1</code>, or <code>null</code> if it is not limited.
+     */
+    public String getCpuSet() {
+        return this.cpuSet;
+    }
+
+    /**
+     * @return The weight of the process for IO scheduling between 1 and 10000 or 0 if the default weight is used.
+     */
+    public int getIoWeight() {
+        return this.ioWeight;
+    }
+
+    public long getMemoryLimitBytes() {
+        return this.memoryLimitBytes;
+    }
+
+    public boolean isEmpty() {
+        return this.cpuQuota <= 0 && this.cpuSet == null && this.memoryLimitBytes <= 0 && this.ioWeight <= 0;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("cpuQuota=")
+            .append(this.cpuQuota)
+            .append(", cpuSet=")
+            .append(this.cpuSet)
+            .append(", memoryLimitBytes=")
+            .append(this.memoryLimitBytes)
+            .append(", ioWeight=")
+            .append(this.ioWeight)
+            .toString();
+    }
+
+    protected void setCpuQuota(double cpuQuota) {
+        this.cpuQuota = cpuQuota;
+    }
+
+    protected void setCpuSet(String cpuSet) {
+        this.cpuSet = cpuSet;
+    }
+
+    protected void setIoWeight(int ioWeight) {
+        this.ioWeight = ioWeight;
+    }
+
+    protected void setMemoryLimitBytes(long memoryLimitBytes) {
+        this.memoryLimitBytes = memoryLimitBytes;
+    }
+}
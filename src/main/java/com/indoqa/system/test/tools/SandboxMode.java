@@ -0,0 +1,36 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+/**
+ * How a {@link WorkingDirSandbox} is populated from its template.
+ */
+public enum SandboxMode {
+
+    /**
+     * Clone the files with copy-on-write reflinks if the file system supports them (Btrfs, XFS, APFS, ...) and copy them
+     * otherwise. The template is never modified.
+     */
+    CLONE,
+
+    /**
+     * Hard link the files and copy them only if the file system does not support hard links. The sandbox shares the content of
+     * the files with the template, so this is only safe for applications that never modify existing files in place, e.g. a
+     * Lucene index that only adds and deletes files.
+     */
+    HARDLINK
+}
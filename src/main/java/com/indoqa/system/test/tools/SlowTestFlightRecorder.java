@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.time.Duration;
+
+import org.junit.rules.Stopwatch;
+import org.junit.runner.Description;
+
+/**
+ * Dumps the flight recording of a runner whenever a test takes longer than the threshold. The dump is named after the test
+ * class, or the runner if it is shared, and the test method. Nothing is dumped if the runner has no flight recording or no
+ * running process, so the rule never fails a test.
+ *
+ * <pre>
+ * &#64;Rule
+ * public SlowTestFlightRecorder slowTests = new SlowTestFlightRecorder(RUNNER, Duration.ofSeconds(2));
+ * </pre>
+ */
+public class SlowTestFlightRecorder extends Stopwatch {
+
+    private final JarRunner runner;
+    private final Duration threshold;
+
+    public SlowTestFlightRecorder(JarRunner runner, Duration threshold) {
+        super();
+        this.runner = runner;
+        this.threshold = threshold;
+    }
+
+    @Override
+    protected void finished(long nanos, Description description) {
+        if (nanos > this.threshold.toNanos()) {
+            this.runner.tryDumpFlightRecording(description.getMethodName());
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sets system properties for an application running inside the current JVM and restores the previous values afterwards.
+ * <p>
+ * System properties are global: all applications in the JVM and the tests themselves see the same values. If two scopes set
+ * the same property to different values, a warning is logged, because the application started first sees the value of the
+ * application started last.
+ */
+public final class SystemPropertiesScope implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SystemPropertiesScope.class);
+
+    private static final Map<String, SystemPropertiesScope> OWNERS = new HashMap<>();
+
+    private final String name;
+    private final Map<String, String> values;
+    private final Map<String, String> previousValues = new HashMap<>();
+
+    private SystemPropertiesScope(String name, Map<String, String> values) {
+        this.name = name;
+        this.values = values;
+    }
+
+    /**
+     * @param name The name of the application, used in the warning about conflicting values.
+     */
+    public static SystemPropertiesScope apply(String name, Map<String, String> sysProps) {
+        SystemPropertiesScope result = new SystemPropertiesScope(name, new HashMap<>(sysProps));
+
+        synchronized (OWNERS) {
+            sysProps.forEach((key, value) -> {
+                SystemPropertiesScope owner = OWNERS.get(key);
+                if (owner != null && !Objects.equals(owner.values.get(key), value)) {
+                    LOGGER.warn(
+                        "The system property '{}' of {} overrides the value of {}, both run in the same JVM.",
+                        key,
+                        name,
+                        owner.name);
+                }
+
+                OWNERS.put(key, result);
+                result.previousValues.put(key, System.getProperty(key));
+                System.setProperty(key, value);
+            });
+        }
+
+        return result;
+    }
+
+    @Override
+    public void close() {
+        synchronized (OWNERS) {
+            this.previousValues.forEach((key, value) -> {
+                OWNERS.remove(key, this);
+
+                if (value == null) {
+                    System.clearProperty(key);
+                } else {
+                    System.setProperty(key, value);
+                }
+            });
+            this.previousValues.clear();
+        }
+    }
+}
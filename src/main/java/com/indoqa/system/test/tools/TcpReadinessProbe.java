@@ -0,0 +1,127 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.AsynchronousSocketChannel;
+import java.nio.channels.CompletionHandler;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Succeeds as soon as a TCP connection to the address can be established.
+ */
+public class TcpReadinessProbe implements ReadinessProbe {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TcpReadinessProbe.class);
+
+    private final String name;
+    private final String addressTemplate;
+
+    private ReadinessContext context;
+    private String address;
+
+    protected TcpReadinessProbe(String name, String addressTemplate) {
+        this.name = name;
+        this.addressTemplate = addressTemplate;
+        this.address = addressTemplate;
+    }
+
+    private static void closeQuietly(AsynchronousSocketChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    @Override
+    public void install(ReadinessContext readinessContext) {
+        this.context = readinessContext;
+        this.address = readinessContext.resolvePorts(this.addressTemplate);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> probe(Duration timeout) {
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        InetSocketAddress socketAddress;
+        try {
+            socketAddress = new InetSocketAddress(
+                StringUtils.substringBeforeLast(this.address, ":"),
+                Integer.parseInt(StringUtils.substringAfterLast(this.address, ":")));
+        } catch (IllegalArgumentException e) {
+            LOGGER.info("Connecting to '{}': exception={}", this.address, e.getMessage());
+            return CompletableFuture.completedFuture(false);
+        }
+
+        if (socketAddress.isUnresolved()) {
+            LOGGER.info("Connecting to '{}': the host cannot be resolved", this.address);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        AsynchronousSocketChannel channel = null;
+        try {
+            channel = AsynchronousSocketChannel.open();
+            channel.connect(socketAddress, null, new CompletionHandler<Void, Void>() {
+
+                @Override
+                public void completed(Void value, Void attachment) {
+                    LOGGER.info("Connected to '{}'.", TcpReadinessProbe.this.address);
+                    if (TcpReadinessProbe.this.context != null) {
+                        TcpReadinessProbe.this.context.responded();
+                    }
+                    result.complete(true);
+                }
+
+                @Override
+                public void failed(Throwable throwable, Void attachment) {
+                    LOGGER.info("Connecting to '{}': exception={}", TcpReadinessProbe.this.address, throwable.getMessage());
+                    result.complete(false);
+                }
+            });
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.info("Connecting to '{}': exception={}", this.address, e.getMessage());
+            if (channel != null) {
+                closeQuietly(channel);
+            }
+            return CompletableFuture.completedFuture(false);
+        }
+
+        AsynchronousSocketChannel connectingChannel = channel;
+        return result
+            .completeOnTimeout(false, timeout.toMillis(), MILLISECONDS)
+            .whenComplete((value, throwable) -> closeQuietly(connectingChannel));
+    }
+
+    @Override
+    public String toString() {
+        return "TCP probe '" + this.name + "' (" + this.address + ")";
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+/**
+ * The values sampled by {@link JvmTelemetry}. Counters and times are cumulative since the start of the process.
+ */
+public enum TelemetryMetric {
+
+    HEAP_USED_BYTES("heapUsedBytes"),
+    HEAP_COMMITTED_BYTES("heapCommittedBytes"),
+    NON_HEAP_USED_BYTES("nonHeapUsedBytes"),
+    GC_COUNT("gcCount"),
+    GC_TIME_MILLIS("gcTimeMillis"),
+    THREAD_COUNT("threadCount"),
+    DAEMON_THREAD_COUNT("daemonThreadCount"),
+    PEAK_THREAD_COUNT("peakThreadCount"),
+    PROCESS_CPU_MILLIS("processCpuMillis"),
+    LOADED_CLASS_COUNT("loadedClassCount"),
+    UNLOADED_CLASS_COUNT("unloadedClassCount");
+
+    private final String label;
+
+    TelemetryMetric(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return this.label;
+    }
+}
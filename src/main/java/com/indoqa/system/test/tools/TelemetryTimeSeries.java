@@ -0,0 +1,139 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.OptionalLong;
+
+/**
+ * A bounded in-memory time series of {@link TelemetryMetric}s. Samples are kept in primitive ring buffers, one per metric, so
+ * sampling does not allocate. When the capacity is exceeded, the oldest samples are dropped.
+ */
+public class TelemetryTimeSeries {
+
+    private static final int METRIC_COUNT = TelemetryMetric.values().length;
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final long[][] values;
+
+    private int start;
+    private int size;
+
+    protected TelemetryTimeSeries(int capacity) {
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+        this.values = new long[METRIC_COUNT][capacity];
+    }
+
+    /**
+     * @return The value of the metric at the given index, 0 being the oldest sample.
+     */
+    public synchronized long get(TelemetryMetric metric, int index) {
+        return this.values[metric.ordinal()][this.getPosition(index)];
+    }
+
+    /**
+     * @return The value of the metric in the latest sample or nothing if there is no sample yet.
+     */
+    public synchronized OptionalLong getLatest(TelemetryMetric metric) {
+        if (this.size == 0) {
+            return OptionalLong.empty();
+        }
+        return OptionalLong.of(this.get(metric, this.size - 1));
+    }
+
+    public synchronized long getMax(TelemetryMetric metric) {
+        long result = 0;
+        for (int i = 0; i < this.size; i++) {
+            result = Math.max(result, this.get(metric, i));
+        }
+        return result;
+    }
+
+    /**
+     * @return The time of the sample at the given index in milliseconds since the epoch.
+     */
+    public synchronized long getTimestamp(int index) {
+        return this.timestamps[this.getPosition(index)];
+    }
+
+    /**
+     * @return A copy of all values of the metric, oldest first.
+     */
+    public synchronized long[] getValues(TelemetryMetric metric) {
+        long[] result = new long[this.size];
+        for (int i = 0; i < this.size; i++) {
+            result[i] = this.get(metric, i);
+        }
+        return result;
+    }
+
+    public synchronized int size() {
+        return this.size;
+    }
+
+    public synchronized String toCsv() {
+        StringBuilder csvBuilder = new StringBuilder("timestamp");
+        for (TelemetryMetric eachMetric : TelemetryMetric.values()) {
+            csvBuilder.append(',').append(eachMetric.getLabel());
+        }
+        csvBuilder.append('\n');
+
+        for (int i = 0; i < this.size; i++) {
+            csvBuilder.append(this.getTimestamp(i));
+            for (TelemetryMetric eachMetric : TelemetryMetric.values()) {
+                csvBuilder.append(',').append(this.get(eachMetric, i));
+            }
+            csvBuilder.append('\n');
+        }
+
+        return csvBuilder.toString();
+    }
+
+    public void write(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Files.write(file, this.toCsv().getBytes(UTF_8));
+    }
+
+    protected synchronized void add(long timestamp, long[] sample) {
+        int position;
+        if (this.size < this.capacity) {
+            position = (this.start + this.size) % this.capacity;
+            this.size++;
+        } else {
+            position = this.start;
+            this.start = (this.start + 1) % this.capacity;
+        }
+
+        this.timestamps[position] = timestamp;
+        for (int i = 0; i < METRIC_COUNT; i++) {
+            this.values[i][position] = sample[i];
+        }
+    }
+
+    private int getPosition(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException("Index " + index + " is out of bounds for " + this.size + " sample(s).");
+        }
+        return (this.start + index) % this.capacity;
+    }
+}
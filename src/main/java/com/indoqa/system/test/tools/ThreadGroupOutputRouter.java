@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Replaces {@link System#out} and {@link System#err} with streams that additionally collect the lines written by the threads of
+ * registered thread groups into the {@link ProcessOutput} of an in-process runner. Everything is still written to the original
+ * streams, which are restored as soon as the last thread group has been unregistered.
+ */
+public final class ThreadGroupOutputRouter {
+
+    private static final Map<ThreadGroup, ProcessOutput> OUTPUTS = new ConcurrentHashMap<>();
+
+    private static RoutingOutputStream out;
+    private static RoutingOutputStream err;
+    private static PrintStream routedOut;
+    private static PrintStream routedErr;
+
+    private ThreadGroupOutputRouter() {
+        // hide utility class constructor
+    }
+
+    public static synchronized void register(ThreadGroup threadGroup, ProcessOutput output) {
+        if (out == null) {
+            out = new RoutingOutputStream(System.out);
+            err = new RoutingOutputStream(System.err);
+            routedOut = new PrintStream(out, true);
+            routedErr = new PrintStream(err, true);
+            System.setOut(routedOut);
+            System.setErr(routedErr);
+        }
+
+        OUTPUTS.put(threadGroup, output);
+    }
+
+    public static synchronized void unregister(ThreadGroup threadGroup) {
+        OUTPUTS.remove(threadGroup);
+
+        if (out == null) {
+            return;
+        }
+
+        out.lineBuffers.remove(threadGroup);
+        err.lineBuffers.remove(threadGroup);
+
+        if (OUTPUTS.isEmpty()) {
+            restoreStreams();
+        }
+    }
+
+    private static ThreadGroup findRegisteredGroup() {
+        ThreadGroup group = Thread.currentThread().getThreadGroup();
+        while (group != null && !OUTPUTS.containsKey(group)) {
+            group = group.getParent();
+        }
+        return group;
+    }
+
+    /**
+     * Put back the original streams, unless somebody else has replaced the routing streams in the meantime.
+     */
+    private static void restoreStreams() {
+        if (System.out == routedOut) {
+            System.setOut(out.target);
+        }
+        if (System.err == routedErr) {
+            System.setErr(err.target);
+        }
+
+        out = null;
+        err = null;
+        routedOut = null;
+        routedErr = null;
+    }
+
+    private static class RoutingOutputStream extends OutputStream {
+
+        private final PrintStream target;
+        private final Map<ThreadGroup, ByteArrayOutputStream> lineBuffers = new ConcurrentHashMap<>();
+
+        public RoutingOutputStream(PrintStream target) {
+            this.target = target;
+        }
+
+        @Override
+        public void flush() {
+            this.target.flush();
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) {
+            this.target.write(bytes, offset, length);
+
+            ThreadGroup group = findRegisteredGroup();
+            if (group == null) {
+                return;
+            }
+
+            ByteArrayOutputStream lineBuffer = this.lineBuffers.computeIfAbsent(group, key -> new ByteArrayOutputStream());
+            synchronized (lineBuffer) {
+                for (int i = offset; i < offset + length; i++) {
+                    if (bytes[i] == '\n') {
+                        this.emitLine(group, lineBuffer);
+                    } else if (bytes[i] != '\r') {
+                        lineBuffer.write(bytes[i]);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void write(int b) {
+            this.write(new byte[] {(byte) b}, 0, 1);
+        }
+
+        private void emitLine(ThreadGroup group, ByteArrayOutputStream lineBuffer) {
+            ProcessOutput output = OUTPUTS.get(group);
+            if (output != null) {
+                output.addLine(new String(lineBuffer.toByteArray(), Charset.defaultCharset()));
+            }
+            lineBuffer.reset();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static org.junit.Assert.fail;
+
+/**
+ * A version range in Maven notation, e.g. <code>[1.0,2.0)</code>, <code>[1.5,)</code> or <code>[1.2.3]</code>. A plain version
+ * like <code>1.0</code> means that version or any newer one.
+ */
+public final class VersionRange {
+
+    private final String value;
+    private final ArtifactVersion lowerBound;
+    private final boolean lowerBoundInclusive;
+    private final ArtifactVersion upperBound;
+    private final boolean upperBoundInclusive;
+
+    private VersionRange(String value, ArtifactVersion lowerBound, boolean lowerBoundInclusive, ArtifactVersion upperBound,
+            boolean upperBoundInclusive) {
+        this.value = value;
+        this.lowerBound = lowerBound;
+        this.lowerBoundInclusive = lowerBoundInclusive;
+        this.upperBound = upperBound;
+        this.upperBoundInclusive = upperBoundInclusive;
+    }
+
+    public static VersionRange parse(String value) {
+        String range = value.trim();
+
+        if (!range.startsWith("[") && !range.startsWith("(")) {
+            return new VersionRange(range, ArtifactVersion.parse(range), true, null, false);
+        }
+
+        if (range.length() < 3 || !range.endsWith("]") && !range.endsWith(")")) {
+            fail("The version range '" + value + "' is invalid.");
+        }
+
+        boolean lowerBoundInclusive = range.charAt(0) == '[';
+        boolean upperBoundInclusive = range.charAt(range.length() - 1) == ']';
+        String bounds = range.substring(1, range.length() - 1);
+
+        int separator = bounds.indexOf(',');
+        if (separator == -1) {
+            if (!lowerBoundInclusive || !upperBoundInclusive) {
+                fail("The version range '" + value + "' must use brackets for an exact version.");
+            }
+
+            ArtifactVersion version = ArtifactVersion.parse(bounds);
+            return new VersionRange(range, version, true, version, true);
+        }
+
+        if (bounds.indexOf(',', separator + 1) != -1) {
+            fail("The version range '" + value + "' must not contain more than two bounds.");
+        }
+
+        return new VersionRange(
+            range,
+            parseBound(bounds.substring(0, separator)),
+            lowerBoundInclusive,
+            parseBound(bounds.substring(separator + 1)),
+            upperBoundInclusive);
+    }
+
+    private static ArtifactVersion parseBound(String bound) {
+        if (bound.trim().isEmpty()) {
+            return null;
+        }
+        return ArtifactVersion.parse(bound);
+    }
+
+    public boolean contains(ArtifactVersion version) {
+        if (this.lowerBound != null) {
+            int result = version.compareTo(this.lowerBound);
+            if (result < 0 || result == 0 && !this.lowerBoundInclusive) {
+                return false;
+            }
+        }
+
+        if (this.upperBound != null) {
+            int result = version.compareTo(this.upperBound);
+            if (result > 0 || result == 0 && !this.upperBoundInclusive) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return this.value;
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.codec.binary.Hex;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unpacks WAR archives once into a directory of the {@link CacheDirectory} named by the content hash of the archive, so later
+ * runs can serve the exploded web application without extracting it again.
+ *
+ * Concurrent processes are synchronized by a file lock per archive and the extracted directory is moved into place atomically.
+ * The size of the cache is bounded: the least recently used directories are removed as soon as the total size exceeds the
+ * configured maximum. Directories that are in use by any process, i.e. locked by an open {@link Entry}, or that were used
+ * within the last {@value #MIN_EVICTION_AGE_MINUTES} minutes are never removed.
+ */
+public final class WarExtractionCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WarExtractionCache.class);
+
+    public static final long DEFAULT_MAX_SIZE_IN_MEGABYTES = 2048;
+
+    private static final String CACHE_NAME = "wars";
+    private static final String LOCK_SUFFIX = ".lock";
+    private static final String EXTRACTION_LOCK_SUFFIX = ".extraction.lock";
+    private static final String SIZE_SUFFIX = ".size";
+    private static final String TRASH_PREFIX = ".trash-";
+    private static final String EXTRACTING_PREFIX = ".extracting-";
+    private static final long HASH_WINDOW_BYTES = 64L * 1024 * 1024;
+    private static final long MIN_EVICTION_AGE_MINUTES = 10;
+    private static final Map<String, String> CONTENT_HASHES = new ConcurrentHashMap<>();
+    private static final Map<String, Lease> LEASES = new ConcurrentHashMap<>();
+
+    private WarExtractionCache() {
+        // hide utility class constructor
+    }
+
+    /**
+     * Extract the WAR archive unless it has been extracted already. The returned entry keeps a shared lock on the directory
+     * until it is closed, so no process evicts it while it is served.
+     */
+    public static synchronized Entry extract(Path warArchive, long maxSizeInBytes) throws IOException {
+        Path cacheDir = CacheDirectory.get(CACHE_NAME);
+        String hash = getContentHash(warArchive);
+        Path targetDir = cacheDir.resolve(hash);
+
+        acquire(cacheDir, hash);
+        try (FileChannel extractionChannel = FileChannel.open(cacheDir.resolve(hash + EXTRACTION_LOCK_SUFFIX), CREATE, WRITE)) {
+            // released when the channel is closed
+            extractionChannel.lock();
+
+            if (Files.isDirectory(targetDir)) {
+                LOGGER.debug("Using the extracted WAR archive {}", targetDir);
+            } else {
+                long start = System.nanoTime();
+                long size = unpack(warArchive, targetDir);
+                Files.write(cacheDir.resolve(hash + SIZE_SUFFIX), String.valueOf(size).getBytes(UTF_8));
+                LOGGER.info("Extracted {} to {} in {} ms.", warArchive, targetDir, (System.nanoTime() - start) / 1_000_000);
+            }
+
+            Files.setLastModifiedTime(targetDir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            release(hash);
+            throw e;
+        }
+
+        try {
+            evict(cacheDir, maxSizeInBytes);
+        } catch (IOException e) {
+            LOGGER.warn("Could not evict extracted WAR archives from {}: {}", cacheDir, e.getMessage());
+        }
+
+        return new Entry(hash, targetDir);
+    }
+
+    /**
+     * Take the shared usage lock of the entry, once per JVM. Other JVMs take it as well, eviction needs it exclusively.
+     */
+    private static void acquire(Path cacheDir, String hash) throws IOException {
+        Lease lease = LEASES.get(hash);
+        if (lease == null) {
+            FileChannel usageChannel = FileChannel.open(cacheDir.resolve(hash + LOCK_SUFFIX), CREATE, READ, WRITE);
+            try {
+                usageChannel.lock(0, Long.MAX_VALUE, true);
+            } catch (IOException e) {
+                usageChannel.close();
+                throw e;
+            }
+
+            lease = new Lease(usageChannel);
+            LEASES.put(hash, lease);
+        }
+
+        lease.users++;
+    }
+
+    private static void evict(Path cacheDir, long maxSizeInBytes) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        long totalSize = 0;
+        long minLastUsed = System.currentTimeMillis() - Duration.ofMinutes(MIN_EVICTION_AGE_MINUTES).toMillis();
+
+        try (DirectoryStream<Path> directories = Files.newDirectoryStream(cacheDir, Files::isDirectory)) {
+            for (Path eachDirectory : directories) {
+                String fileName = eachDirectory.getFileName().toString();
+                if (fileName.startsWith(TRASH_PREFIX)) {
+                    FileUtils.deleteQuietly(eachDirectory.toFile());
+                    continue;
+                }
+                if (fileName.startsWith(EXTRACTING_PREFIX)) {
+                    // left behind by a process that died while extracting
+                    if (getLastUsed(eachDirectory) < minLastUsed) {
+                        FileUtils.deleteQuietly(eachDirectory.toFile());
+                    }
+                    continue;
+                }
+
+                entries.add(eachDirectory);
+                totalSize += readSize(eachDirectory);
+            }
+        }
+
+        if (totalSize <= maxSizeInBytes) {
+            return;
+        }
+
+        entries.sort(Comparator.comparingLong(WarExtractionCache::getLastUsed));
+
+        for (Path eachEntry : entries) {
+            if (totalSize <= maxSizeInBytes) {
+                break;
+            }
+
+            String hash = eachEntry.getFileName().toString();
+            if (LEASES.containsKey(hash) || getLastUsed(eachEntry) > minLastUsed) {
+                continue;
+            }
+
+            try {
+                totalSize -= evictEntry(cacheDir, eachEntry, hash);
+            } catch (IOException e) {
+                LOGGER.warn("Could not evict the extracted WAR archive {}: {}", eachEntry, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return The size of the evicted entry or 0 if it is in use by any process.
+     */
+    private static long evictEntry(Path cacheDir, Path entry, String hash) throws IOException {
+        try (FileChannel lockChannel = FileChannel.open(cacheDir.resolve(hash + LOCK_SUFFIX), CREATE, WRITE);
+                FileLock lock = lockChannel.tryLock()) {
+            if (lock == null) {
+                return 0;
+            }
+
+            long size = readSize(entry);
+            LOGGER.info("Evicting the extracted WAR archive {} ({} bytes).", entry, size);
+
+            // move the directory away first, so no other process sees it half deleted
+            Path trash = cacheDir.resolve(TRASH_PREFIX + hash + "-" + System.nanoTime());
+            Files.move(entry, trash, ATOMIC_MOVE);
+            Files.deleteIfExists(cacheDir.resolve(hash + SIZE_SUFFIX));
+            FileUtils.deleteQuietly(trash.toFile());
+            return size;
+        } catch (OverlappingFileLockException e) {
+            // used by this JVM
+            return 0;
+        }
+    }
+
+    /**
+     * Hash the archive through a memory mapping, so its content is not copied into the heap.
+     */
+    private static String getContentHash(Path file) throws IOException {
+        String cacheKey = file.toAbsolutePath() + ":" + Files.size(file) + ":" + Files.getLastModifiedTime(file).toMillis();
+
+        String hash = CONTENT_HASHES.get(cacheKey);
+        if (hash != null) {
+            return hash;
+        }
+
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += HASH_WINDOW_BYTES) {
+                long length = Math.min(HASH_WINDOW_BYTES, size - position);
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                digest.update(buffer);
+            }
+        }
+
+        hash = Hex.encodeHexString(digest.digest());
+        CONTENT_HASHES.put(cacheKey, hash);
+        return hash;
+    }
+
+    private static long getLastUsed(Path entry) {
+        try {
+            return Files.getLastModifiedTime(entry).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static long readSize(Path entry) {
+        try {
+            Path sizeFile = entry.resolveSibling(entry.getFileName() + SIZE_SUFFIX);
+            return Long.parseLong(new String(Files.readAllBytes(sizeFile), UTF_8).trim());
+        } catch (IOException | NumberFormatException e) {
+            return FileUtils.sizeOfDirectory(entry.toFile());
+        }
+    }
+
+    private static synchronized void release(String hash) {
+        Lease lease = LEASES.get(hash);
+        if (lease == null || --lease.users > 0) {
+            return;
+        }
+
+        LEASES.remove(hash);
+        try {
+            // closing the channel releases the lock
+            lease.channel.close();
+        } catch (IOException e) {
+            LOGGER.warn("Could not release the extracted WAR archive {}: {}", hash, e.getMessage());
+        }
+    }
+
+    private static long unpack(Path warArchive, Path targetDir) throws IOException {
+        Path tempDir = Files.createTempDirectory(targetDir.getParent(), EXTRACTING_PREFIX);
+        long size = 0;
+
+        try (ZipFile zipFile = new ZipFile(warArchive.toFile())) {
+            Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry eachEntry = entries.nextElement();
+
+                Path target = tempDir.resolve(eachEntry.getName()).normalize();
+                if (!target.startsWith(tempDir)) {
+                    throw new IOException("Invalid entry " + eachEntry.getName() + " in " + warArchive);
+                }
+
+                if (eachEntry.isDirectory()) {
+                    Files.createDirectories(target);
+                    continue;
+                }
+
+                Files.createDirectories(target.getParent());
+                try (InputStream inputStream = zipFile.getInputStream(eachEntry)) {
+                    size += Files.copy(inputStream, target);
+                }
+            }
+
+            Files.move(tempDir, targetDir, ATOMIC_MOVE);
+        } finally {
+            FileUtils.deleteQuietly(tempDir.toFile());
+        }
+
+        return size;
+    }
+
+    /**
+     * An extracted WAR archive in use. Close it once the web application has been stopped.
+     */
+    public static final class Entry implements AutoCloseable {
+
+        private final String hash;
+        private final Path directory;
+        private boolean closed;
+
+        private Entry(String hash, Path directory) {
+            this.hash = hash;
+            this.directory = directory;
+        }
+
+        @Override
+        public synchronized void close() {
+            if (this.closed) {
+                return;
+            }
+
+            this.closed = true;
+            release(this.hash);
+        }
+
+        public Path getDirectory() {
+            return this.directory;
+        }
+    }
+
+    private static class Lease {
+
+        private final FileChannel channel;
+        private int users;
+
+        public Lease(FileChannel channel) {
+            this.channel = channel;
+        }
+    }
+}
@@ -16,18 +16,20 @@
  */
 package com.indoqa.system.test.tools;
 
+import static org.apache.commons.codec.digest.DigestUtils.sha1Hex;
+import static org.apache.commons.lang3.StringUtils.removeEnd;
 import static org.junit.Assert.fail;
 
-import java.io.File;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
 
-import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -35,7 +37,20 @@ public class WarRunner extends JarRunner {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(WarRunner.class);
 
+    public static final String HTTP_PORT = "http";
+
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final String DEFAULT_CONTEXT_PATH = "/";
+
     private String webArchive;
+    private int httpPort = DEFAULT_HTTP_PORT;
+    private boolean freeHttpPort;
+    private String contextPath = DEFAULT_CONTEXT_PATH;
+    private boolean embedded;
+    private EmbeddedJetty.Deployment deployment;
+    private long extractionCacheMaxBytes;
+    private Path deployablePath;
+    private WarExtractionCache.Entry extraction;
 
     protected WarRunner(Path warArchivePath) {
         super(getJettyRunnerPath());
@@ -47,44 +62,157 @@ public class WarRunner extends JarRunner {
         this.webArchive = warArchivePath.toAbsolutePath().toString();
     }
 
-    private static void copyJarToTempFile(URL jettyJar, File file) throws IOException, FileNotFoundException {
-        InputStream inputStream = jettyJar.openStream();
-        IOUtils.copy(inputStream, new FileOutputStream(file));
-        IOUtils.closeQuietly(inputStream);
+    private static Path getJettyRunnerPath() {
+        return JettyRunnerHolder.JETTY_RUNNER_PATH;
     }
 
-    private static Path getJettyRunnerPath() {
-        try {
-            Path jettyPath = Files.createTempFile("jetty-runner", ".jar");
-            copyJarToTempFile(WarRunner.class.getClassLoader().getResource("jetty-runner.jar"), jettyPath.toFile());
-            return jettyPath;
-        } catch (Exception e) {
-            throw new IllegalStateException("Error loading jetty-runner.jar.", e);
-        }
+    protected Path getJettyRunnerJarPath() {
+        return this.getJavaRunnablePath();
     }
 
     @Override
-    protected void after() {
-        super.after();
+    public String getName() {
+        return removeEnd(Paths.get(this.webArchive).getFileName().toString(), ".war");
+    }
 
-        try {
-            Files.deleteIfExists(this.getJettyRunnerJarPath());
-        } catch (Exception e) {
-            LOGGER.error("Could not remove temporary jetty path.", e);
-        }
+    @Override
+    protected String getProcessKeySource() {
+        return super.getProcessKeySource() + " " + this.webArchive;
     }
 
-    protected Path getJettyRunnerJarPath() {
-        return this.getJavaRunnablePath();
+    /**
+     * Stop and start the web application again without restarting the other web applications of the embedded Jetty. See
+     * {@link EmbeddedJetty}.
+     */
+    public void redeploy() {
+        if (this.deployment == null || !this.embedded) {
+            fail("Only web applications running in an embedded Jetty can be redeployed.");
+        }
+
+        try {
+            this.deployment.redeploy();
+        } catch (IOException e) {
+            fail(e.getMessage());
+        }
     }
 
     @Override
     protected void run() {
-        this.addArguments(this.webArchive);
+        Path resolvedPath = this.resolveDeployablePath();
+
+        // a reset runs the runner again, but the archive must be passed only once
+        if (this.deployablePath == null) {
+            this.deployablePath = resolvedPath;
+            this.addArguments(this.deployablePath.toString());
+        }
         super.run();
     }
 
+    protected void setContextPath(String contextPath) {
+        this.contextPath = contextPath;
+        this.addArguments("--path", contextPath);
+    }
+
+    /**
+     * Deploy the WAR archive into an {@link EmbeddedJetty} instead of starting jetty-runner.
+     */
+    protected void setEmbedded(boolean embedded) {
+        this.embedded = embedded;
+        this.setInProcess(embedded);
+    }
+
     protected void setHttpPort(int httpPort) {
-        this.addArguments("--port " + httpPort);
+        this.httpPort = httpPort;
+        this.addArguments("--port", String.valueOf(httpPort));
+    }
+
+    /**
+     * Serve the WAR archive from the {@link WarExtractionCache} instead of extracting it on every start.
+     */
+    protected void setWarExtractionCache(long maxSizeInBytes) {
+        this.extractionCacheMaxBytes = maxSizeInBytes;
+    }
+
+    @Override
+    protected InProcessApplication startInProcessApplication(List<String> resolvedArguments, Map<String, String> sysProps,
+            ProcessOutput output, Runnable onTermination) throws IOException {
+        if (!this.embedded) {
+            return super.startInProcessApplication(resolvedArguments, sysProps, output, onTermination);
+        }
+
+        int port = this.freeHttpPort ? this.getPort(HTTP_PORT) : this.httpPort;
+        this.deployment = EmbeddedJetty.deploy(port, this.contextPath, this.deployablePath, sysProps);
+        return this.deployment;
+    }
+
+    @Override
+    protected void stop() {
+        super.stop();
+
+        // a reset starts the process again with the same extracted directory, so it must not be evicted in the meantime
+        if (this.extraction != null && !this.isResetting()) {
+            this.extraction.close();
+            this.extraction = null;
+        }
+    }
+
+    protected void useFreeHttpPort() {
+        this.freeHttpPort = true;
+        this.addPort(HTTP_PORT);
+        this.addArguments("--port", PortReservation.placeholder(HTTP_PORT));
+    }
+
+    private Path resolveDeployablePath() {
+        Path warArchivePath = Paths.get(this.webArchive);
+        if (this.extractionCacheMaxBytes <= 0) {
+            return warArchivePath;
+        }
+
+        try {
+            if (this.extraction == null) {
+                this.extraction = WarExtractionCache.extract(warArchivePath, this.extractionCacheMaxBytes);
+            }
+            return this.extraction.getDirectory();
+        } catch (IOException e) {
+            LOGGER.warn("Could not use the extraction cache for {}, using the WAR archive instead.", this.webArchive, e);
+            return warArchivePath;
+        }
+    }
+
+    /**
+     * Extracts the jetty-runner.jar once per JVM into the {@link CacheDirectory}. The file name contains the hash of the
+     * resource, so it is reused by all later builds and the process key of a WAR runner stays stable.
+     */
+    private static class JettyRunnerHolder {
+
+        private static final String JETTY_RUNNER_RESOURCE = "jetty-runner.jar";
+        private static final Path JETTY_RUNNER_PATH = extractJettyRunner();
+
+        private static Path extractJettyRunner() {
+            URL jettyJar = WarRunner.class.getClassLoader().getResource(JETTY_RUNNER_RESOURCE);
+            if (jettyJar == null) {
+                throw new IllegalStateException("Error loading " + JETTY_RUNNER_RESOURCE + ": resource not found.");
+            }
+
+            try {
+                String hash;
+                try (InputStream inputStream = jettyJar.openStream()) {
+                    hash = sha1Hex(inputStream);
+                }
+
+                Path target = CacheDirectory.get("jetty-runner").resolve("jetty-runner-" + hash + ".jar");
+                if (Files.exists(target)) {
+                    LOGGER.debug("Using cached {}", target);
+                    return target;
+                }
+
+                LOGGER.info("Extracting {} to {}", JETTY_RUNNER_RESOURCE, target);
+                try (InputStream inputStream = jettyJar.openStream()) {
+                    return CacheDirectory.store(inputStream, target);
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Error loading " + JETTY_RUNNER_RESOURCE + ".", e);
+            }
+        }
     }
 }
@@ -24,10 +24,14 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
 
 public class WarRunnerBuilder {
 
     private WarRunner warRunner;
+    private Duration sharedIdleTimeout;
 
     public WarRunnerBuilder(Path warArchivePath) {
         requireNonNull(warArchivePath, "The War runner needs a path to the WAR archive.");
@@ -65,6 +69,13 @@ public class WarRunnerBuilder {
         return this;
     }
 
+    public WarRunnerBuilder addListener(JarRunnerListener listener) {
+        requireNonNull(listener, "The listener must not be null.");
+
+        this.warRunner.addListener(listener);
+        return this;
+    }
+
     public WarRunnerBuilder addOptions(String... options) {
         requireNonNull(options, "The option must not be null.");
 
@@ -85,18 +96,187 @@ public class WarRunnerBuilder {
         return this.warRunner;
     }
 
+    /**
+     * Like {@link #build()} but starts the process in the background. The returned future completes as soon as the process is
+     * ready. Cancelling the future or letting it time out, e.g. with
+     * {@link CompletableFuture#orTimeout(long, java.util.concurrent.TimeUnit)}, stops the process.
+     */
+    public CompletableFuture<WarRunner> buildAsync() {
+        CompletableFuture<Void> startup = this.warRunner.runAsync();
+
+        CompletableFuture<WarRunner> result = startup.thenApply(value -> this.warRunner);
+        result.whenComplete((runner, throwable) -> {
+            if (throwable != null) {
+                startup.cancel(true);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Like {@link #build()} but shares the process with all other users of the same configuration in this JVM. See
+     * {@link JarRunnerPool}.
+     */
+    public WarRunner buildShared() {
+        return JarRunnerPool.acquire(this.warRunner, this.sharedIdleTimeout);
+    }
+
+    /**
+     * Do not write the metrics reports. See {@link #setMetricsReportDir(Path)}.
+     */
+    public WarRunnerBuilder disableMetricsReport() {
+        this.warRunner.setMetricsReportDir(null);
+        return this;
+    }
+
+    /**
+     * Do not forward the output of the process to the out and error streams. It is still available via
+     * {@link JarRunner#getOutput()}.
+     */
+    public WarRunnerBuilder disableOutputForwarding() {
+        this.warRunner.setMaxForwardedLinesPerSecond(0);
+        return this;
+    }
+
+    /**
+     * Start the process with a dynamic AppCDS archive (JDK 13+). The first launch creates the archive when the process exits,
+     * all later launches reuse it. See {@link ClassDataSharing}.
+     */
+    public WarRunnerBuilder enableClassDataSharing() {
+        this.warRunner.setClassDataSharing(true);
+        return this;
+    }
+
+    /**
+     * Start the process with a Java Flight Recorder recording using the <code>profile</code> template. The recording is dumped
+     * into <code>target/surefire-reports</code> at teardown, on {@link JarRunner#dumpFlightRecording(String)} and by a
+     * {@link SlowTestFlightRecorder}, each time together with a summary.
+     */
+    public WarRunnerBuilder enableFlightRecording() {
+        return this.enableFlightRecording(FlightRecording.DEFAULT_TEMPLATE);
+    }
+
+    /**
+     * Like {@link #enableFlightRecording()} with another template, e.g. <code>default</code> or the path of a custom
+     * <code>.jfc</code> file.
+     */
+    public WarRunnerBuilder enableFlightRecording(String template) {
+        requireNonNull(template, "The flight recording template must not be null.");
+
+        this.warRunner.setFlightRecording(template);
+        return this;
+    }
+
+    /**
+     * Additionally search for stale Java processes with <code>jps</code>. This is only necessary for processes that were
+     * started by older versions of this library because all other processes are found in the {@link ProcessRegistry}.
+     */
+    public WarRunnerBuilder enableJpsProcessDiscovery() {
+        this.warRunner.setJpsProcessDiscovery(true);
+        return this;
+    }
+
+    /**
+     * Snapshot the working directory after the first start, so {@link JarRunner#reset()} can stop the process, restore only
+     * the changed files and start it again instead of creating a new runner. This needs a working dir sandbox or a dedicated
+     * working dir.
+     */
+    public WarRunnerBuilder enableSnapshotReset() {
+        this.warRunner.setSnapshotReset(true);
+        return this;
+    }
+
+    /**
+     * Sample heap, GC, thread, CPU and class loading figures of the started process every
+     * {@value JvmTelemetry#DEFAULT_INTERVAL_MILLIS} ms. The samples are available via {@link JarRunner#getTelemetry()} and
+     * written into <code>target/system-test-tools</code> at teardown.
+     */
+    public WarRunnerBuilder enableTelemetry() {
+        return this.enableTelemetry(JvmTelemetry.DEFAULT_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Like {@link #enableTelemetry()} with a custom sampling interval.
+     */
+    public WarRunnerBuilder enableTelemetry(int intervalMillis) {
+        if (intervalMillis < MIN_CHECK_INTERVALL) {
+            fail("The telemetry interval must be at least " + MIN_CHECK_INTERVALL + " ms.");
+        }
+
+        this.warRunner.setTelemetryInterval(Duration.ofMillis(intervalMillis));
+        return this;
+    }
+
+    /**
+     * Extract the WAR archive once into the {@link WarExtractionCache} and serve the exploded web application on all later runs.
+     * The cache is limited to {@value WarExtractionCache#DEFAULT_MAX_SIZE_IN_MEGABYTES} MB.
+     */
+    public WarRunnerBuilder enableWarExtractionCache() {
+        return this.enableWarExtractionCache(WarExtractionCache.DEFAULT_MAX_SIZE_IN_MEGABYTES);
+    }
+
+    /**
+     * Like {@link #enableWarExtractionCache()} with a custom limit of the cache size. The least recently used archives are
+     * removed as soon as the cache gets bigger.
+     */
+    public WarRunnerBuilder enableWarExtractionCache(long maxSizeInMegabytes) {
+        if (maxSizeInMegabytes <= 0) {
+            fail("The size of the WAR extraction cache must be a positive number.");
+        }
+
+        this.warRunner.setWarExtractionCache(maxSizeInMegabytes * 1024 * 1024);
+        return this;
+    }
+
+    protected WarRunner getWarRunner() {
+        return this.warRunner;
+    }
+
     public WarRunnerBuilder preInitialization(JarRunnerAction action) {
         this.warRunner.setPreInitializationAction(action);
         return this;
     }
 
+    /**
+     * Reserve a free port under the given name. The port can be used in options, system properties, arguments and the check
+     * address with the placeholder <code>${port:name}</code> and is available via {@link JarRunner#getPort(String)}. Ports
+     * referenced by placeholders are reserved automatically.
+     */
+    public WarRunnerBuilder reservePort(String name) {
+        requireNonNull(name, "The name of the port must not be null.");
+
+        this.warRunner.addPort(name);
+        return this;
+    }
+
+    /**
+     * Run the Java runnable inside the current JVM instead of starting a separate process. This saves the JVM startup but
+     * ignores the Java options, the working dir and class data sharing. The system properties are set JVM-wide while the
+     * application runs, so other in-process applications and the tests see them too. See {@link InProcessLauncher} and
+     * {@link SystemPropertiesScope}.
+     */
+    public WarRunnerBuilder runInProcess() {
+        this.warRunner.setInProcess(true);
+        return this;
+    }
+
     public WarRunnerBuilder setAlwaysWait(int millis) {
         this.warRunner.setAlwaysWait(millis);
         return this;
     }
 
+    /**
+     * @param checkAddress The URL to be checked. It may contain placeholders of reserved ports, e.g.
+     *            <code>http://localhost:${port:http}/health</code>.
+     */
     public WarRunnerBuilder setCheckAdress(String checkAddress) {
-        this.warRunner.setCheckAddress(createURL(checkAddress));
+        requireNonNull(checkAddress, "The check address must not be null.");
+
+        if (PortReservation.containsPlaceholder(checkAddress)) {
+            this.warRunner.setCheckAddressTemplate(checkAddress);
+        } else {
+            this.warRunner.setCheckAddress(createURL(checkAddress));
+        }
         return this;
     }
 
@@ -109,6 +289,43 @@ public class WarRunnerBuilder {
         return this;
     }
 
+    /**
+     * Set the context path of the web application. Defaults to <code>/</code>.
+     */
+    public WarRunnerBuilder setContextPath(String contextPath) {
+        requireNonNull(contextPath, "The context path must not be null.");
+
+        if (!contextPath.startsWith("/")) {
+            fail("The context path must start with '/'.");
+        }
+
+        this.warRunner.setContextPath(contextPath);
+        return this;
+    }
+
+    /**
+     * Limit the process to the given number of CPUs, e.g. <code>1.5</code>. Resource limits are applied with cgroups v2 on
+     * Linux and ignored elsewhere, see {@link ControlGroup}.
+     */
+    public WarRunnerBuilder setCpuQuota(double cpus) {
+        if (cpus <= 0) {
+            fail("The CPU quota must be a positive number.");
+        }
+
+        this.warRunner.setCpuQuota(cpus);
+        return this;
+    }
+
+    /**
+     * Run the process on the given CPUs only, e.g. <code>0-1,4</code>.
+     */
+    public WarRunnerBuilder setCpuSet(String cpus) {
+        requireNonNull(cpus, "The CPU set must not be null.");
+
+        this.warRunner.setCpuSet(cpus);
+        return this;
+    }
+
     public WarRunnerBuilder setErrorStream(PrintStream err) {
         requireNonNull(err, "The error stream must not be null.");
 
@@ -116,11 +333,68 @@ public class WarRunnerBuilder {
         return this;
     }
 
+    public WarRunnerBuilder setExponentialBackoff(int initialMillis, int maxMillis) {
+        if (initialMillis <= 0 || maxMillis < initialMillis) {
+            fail("The backoff must start with a positive number and must not end before it starts.");
+        }
+
+        this.warRunner.setBackoff(Backoff.exponential(initialMillis, maxMillis));
+        return this;
+    }
+
     public WarRunnerBuilder setHttpPort(int httpPort) {
         this.warRunner.setHttpPort(httpPort);
         return this;
     }
 
+    /**
+     * Set the weight of the process for IO scheduling, between 1 and 10000 (default 100).
+     */
+    public WarRunnerBuilder setIoWeight(int weight) {
+        if (weight < 1 || weight > 10_000) {
+            fail("The IO weight must be between 1 and 10000.");
+        }
+
+        this.warRunner.setIoWeight(weight);
+        return this;
+    }
+
+    /**
+     * Limit the number of output lines forwarded to the out and error streams per second. Additional lines are only available
+     * via {@link JarRunner#getOutput()}.
+     */
+    public WarRunnerBuilder setMaxForwardedLinesPerSecond(int lines) {
+        if (lines <= 0) {
+            fail("The number of forwarded lines must be a positive number.");
+        }
+
+        this.warRunner.setMaxForwardedLinesPerSecond(lines);
+        return this;
+    }
+
+    /**
+     * Limit the memory of the process including the heap, metaspace and native memory.
+     */
+    public WarRunnerBuilder setMemoryLimitInMegabytes(int megabytes) {
+        if (megabytes <= 0) {
+            fail("The memory limit must be a positive number.");
+        }
+
+        this.warRunner.setMemoryLimit(megabytes * 1024L * 1024L);
+        return this;
+    }
+
+    /**
+     * Set the directory the JSON and CSV metrics reports of the runner are written to. Defaults to
+     * <code>target/system-test-tools</code>.
+     */
+    public WarRunnerBuilder setMetricsReportDir(Path reportDir) {
+        requireNonNull(reportDir, "The metrics report dir must not be null.");
+
+        this.warRunner.setMetricsReportDir(reportDir);
+        return this;
+    }
+
     public WarRunnerBuilder setOutStream(PrintStream out) {
         requireNonNull(out, "The out stream must not be null.");
 
@@ -128,6 +402,58 @@ public class WarRunnerBuilder {
         return this;
     }
 
+    /**
+     * Set the number of output lines of the process that are kept in memory.
+     */
+    public WarRunnerBuilder setOutputBufferLines(int lines) {
+        if (lines <= 0) {
+            fail("The output buffer must be able to keep at least one line.");
+        }
+
+        this.warRunner.setOutputBufferLines(lines);
+        return this;
+    }
+
+    public WarRunnerBuilder setReadinessStrategy(ReadinessStrategy readinessStrategy) {
+        requireNonNull(readinessStrategy, "The readiness strategy must not be null.");
+
+        this.warRunner.setReadinessStrategy(readinessStrategy);
+        return this;
+    }
+
+    /**
+     * Let {@link JarRunner#reset()} call the hook instead of restarting the process, e.g.
+     * {@link ResetHook#httpPost(String, Duration)}. If the snapshot reset is enabled too, it is used as fallback when the hook
+     * fails.
+     */
+    public WarRunnerBuilder setResetHook(ResetHook resetHook) {
+        requireNonNull(resetHook, "The reset hook must not be null.");
+
+        this.warRunner.setResetHook(resetHook);
+        return this;
+    }
+
+    /**
+     * Stop a shared process after it has not been used for the given time. By default it is kept running until the JVM exits.
+     */
+    public WarRunnerBuilder setSharedIdleTimeoutInSeconds(int seconds) {
+        if (seconds < 0) {
+            fail("The idle timeout of shared processes must not be negative.");
+        }
+
+        this.sharedIdleTimeout = Duration.ofSeconds(seconds);
+        return this;
+    }
+
+    public WarRunnerBuilder setShutdownTimeoutInSeconds(int seconds) {
+        if (seconds < 0) {
+            fail("The shutdown timeout must not be negative.");
+        }
+
+        this.warRunner.setShutdownTimeout(Duration.ofSeconds(seconds));
+        return this;
+    }
+
     public WarRunnerBuilder setWaitForStartupInSeconds(int seconds) {
         if (seconds <= 0) {
             fail("The 'waitForStartup' time must be a positive number.");
@@ -143,4 +469,51 @@ public class WarRunnerBuilder {
         this.warRunner.setWorkingDir(workDir);
         return this;
     }
+
+    /**
+     * Start each process in a private working directory that is cloned from the template with copy-on-write reflinks, or
+     * copied if the file system does not support them. The sandbox is removed in the background after the process has been
+     * stopped, so parallel runners can use the same template without interfering.
+     */
+    public WarRunnerBuilder setWorkingDirSandbox(Path template) {
+        return this.setWorkingDirSandbox(template, SandboxMode.CLONE);
+    }
+
+    /**
+     * Like {@link #setWorkingDirSandbox(Path)} with another {@link SandboxMode}.
+     */
+    public WarRunnerBuilder setWorkingDirSandbox(Path template, SandboxMode mode) {
+        requireNonNull(template, "The sandbox template must not be null.");
+        requireNonNull(mode, "The sandbox mode must not be null.");
+
+        this.warRunner.setWorkingDirSandbox(template, mode);
+        return this;
+    }
+
+    /**
+     * Deploy the WAR archive into a Jetty running inside the current JVM instead of starting jetty-runner. Web applications
+     * with the same HTTP port share one server, so they need different context paths. The output of the web application is
+     * not captured, so use an HTTP readiness check. System properties are set JVM-wide and a conflicting value of another
+     * application is logged as a warning. See {@link EmbeddedJetty}.
+     */
+    public WarRunnerBuilder useEmbeddedJetty() {
+        this.warRunner.setEmbedded(true);
+        return this;
+    }
+
+    /**
+     * Let Jetty listen on a free port. The port is available via {@link WarRunner#getPort(String)} with the name
+     * {@link WarRunner#HTTP_PORT} and can be used in the check address, e.g. <code>http://localhost:${port:http}/</code>.
+     */
+    public WarRunnerBuilder useFreeHttpPort() {
+        this.warRunner.useFreeHttpPort();
+        return this;
+    }
+
+    public WarRunnerBuilder waitForLogLine(String regex) {
+        requireNonNull(regex, "The log line pattern must not be null.");
+
+        this.warRunner.setReadinessStrategy(ReadinessStrategy.logLine(Pattern.compile(regex)));
+        return this;
+    }
 }
@@ -0,0 +1,208 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.SystemUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A private working directory created from a template directory. Depending on the {@link SandboxMode} the files are cloned
+ * with reflinks or hard linked, so creating the sandbox costs about the same no matter how big the files are. If the file
+ * system supports neither, the files are copied.
+ * <p>
+ * A sandbox is removed by moving it into a trash directory and deleting it in the background. Trash left behind by a JVM
+ * that exited early is deleted when the next sandbox is created.
+ */
+public final class WorkingDirSandbox {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WorkingDirSandbox.class);
+
+    private static final String TRASH_PREFIX = ".trash-";
+    private static final long CLONE_TIMEOUT_SECONDS = 60;
+
+    private final Path directory;
+    private final String method;
+
+    private WorkingDirSandbox(Path directory, String method) {
+        this.directory = directory;
+        this.method = method;
+    }
+
+    /**
+     * Create a new sandbox named after the runner in the base directory and populate it from the template.
+     */
+    public static WorkingDirSandbox create(Path template, Path baseDir, String name, SandboxMode mode) throws IOException {
+        if (!Files.isDirectory(template)) {
+            throw new IOException("The sandbox template " + template.toAbsolutePath() + " is not a directory.");
+        }
+
+        Files.createDirectories(baseDir);
+        StartupExecutor.get().execute(() -> removeTrash(baseDir));
+
+        Path directory = Files.createTempDirectory(baseDir, name + "-");
+        try {
+            String method;
+            if (mode == SandboxMode.CLONE && cloneTree(template, directory)) {
+                method = "cloned";
+            } else {
+                method = copyTree(template, directory, mode == SandboxMode.HARDLINK);
+            }
+            return new WorkingDirSandbox(directory, method);
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(directory.toFile());
+            throw e;
+        }
+    }
+
+    /**
+     * Clone the whole tree with a single <code>cp</code> process, since the JDK cannot create reflinks.
+     */
+    private static boolean cloneTree(Path template, Path target) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add("cp");
+        if (SystemUtils.IS_OS_LINUX) {
+            command.add("-a");
+            command.add("--reflink=always");
+        } else if (SystemUtils.IS_OS_MAC) {
+            command.add("-c");
+            command.add("-R");
+            command.add("-p");
+        } else {
+            return false;
+        }
+        command.add(template.toAbsolutePath().toString() + "/.");
+        command.add(target.toAbsolutePath().toString());
+
+        // the output goes into a file, so that waiting for the process is not blocked by reading its output
+        Path outputFile = Files.createTempFile("sandbox-clone-", ".log");
+        try {
+            Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(outputFile.toFile())
+                .start();
+            process.getOutputStream().close();
+
+            if (process.waitFor(CLONE_TIMEOUT_SECONDS, SECONDS) && process.exitValue() == 0) {
+                return true;
+            }
+
+            process.destroyForcibly();
+            String output = new String(Files.readAllBytes(outputFile), UTF_8).trim();
+            LOGGER.debug("Could not clone {} with reflinks: {}", template, output);
+        } catch (IOException e) {
+            LOGGER.debug("Could not clone {} with reflinks: {}", template, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while cloning " + template, e);
+        } finally {
+            Files.deleteIfExists(outputFile);
+        }
+
+        // remove whatever cp created before it failed
+        FileUtils.cleanDirectory(target.toFile());
+        return false;
+    }
+
+    private static String copyTree(Path template, Path target, boolean hardLinks) throws IOException {
+        boolean[] linking = {hardLinks};
+
+        Files.walkFileTree(template, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(template.relativize(dir).toString()));
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path targetFile = target.resolve(template.relativize(file).toString());
+
+                if (linking[0] && attrs.isRegularFile()) {
+                    try {
+                        Files.createLink(targetFile, file);
+                        return CONTINUE;
+                    } catch (UnsupportedOperationException | FileSystemException e) {
+                        LOGGER.debug("Could not hard link {}, copying instead: {}", file, e.getMessage());
+                        linking[0] = false;
+                    }
+                }
+
+                Files.copy(file, targetFile, COPY_ATTRIBUTES);
+                return CONTINUE;
+            }
+        });
+
+        return linking[0] ? "hard linked" : "copied";
+    }
+
+    private static void removeTrash(Path baseDir) {
+        try (DirectoryStream<Path> trash = Files.newDirectoryStream(baseDir, TRASH_PREFIX + "*")) {
+            for (Path eachTrash : trash) {
+                FileUtils.deleteQuietly(eachTrash.toFile());
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Could not remove the trash in {}: {}", baseDir, e.getMessage());
+        }
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * @return How the sandbox was populated: <code>cloned</code>, <code>hard linked</code> or <code>copied</code>.
+     */
+    public String getMethod() {
+        return this.method;
+    }
+
+    /**
+     * Move the sandbox into the trash and delete it on the {@link StartupExecutor}.
+     */
+    public void remove() {
+        Path trash = this.directory.resolveSibling(TRASH_PREFIX + this.directory.getFileName());
+        try {
+            Files.move(this.directory, trash, ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.warn("Could not move the sandbox {} into the trash: {}", this.directory, e.getMessage());
+            trash = this.directory;
+        }
+
+        Path deleted = trash;
+        StartupExecutor.get().execute(() -> FileUtils.deleteQuietly(deleted.toFile()));
+    }
+}
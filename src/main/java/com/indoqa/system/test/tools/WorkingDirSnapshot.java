@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools;
+
+import static java.nio.file.FileVisitResult.CONTINUE;
+import static java.nio.file.StandardCopyOption.COPY_ATTRIBUTES;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.io.FileUtils;
+
+/**
+ * A copy of a working directory that can be restored incrementally: only files whose size or modification time differ from
+ * the snapshot are copied back, files that did not exist in the snapshot are deleted and everything else is left untouched.
+ */
+public final class WorkingDirSnapshot {
+
+    private final Path directory;
+
+    private WorkingDirSnapshot(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Copy the source directory into a new snapshot in the base directory. The modification times are preserved, because
+     * {@link #restore(Path)} compares them.
+     */
+    public static WorkingDirSnapshot take(Path source, Path baseDir, String name) throws IOException {
+        Files.createDirectories(baseDir);
+        Path directory = Files.createTempDirectory(baseDir, name + "-");
+
+        try {
+            copyChanged(source, directory, new HashSet<>());
+        } catch (IOException e) {
+            FileUtils.deleteQuietly(directory.toFile());
+            throw e;
+        }
+
+        return new WorkingDirSnapshot(directory);
+    }
+
+    private static int copyChanged(Path source, Path target, Set<Path> visited) throws IOException {
+        int[] copied = {0};
+
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path relativePath = source.relativize(dir);
+                visited.add(relativePath);
+
+                Path targetDir = target.resolve(relativePath.toString());
+                if (!Files.isDirectory(targetDir)) {
+                    Files.deleteIfExists(targetDir);
+                    Files.createDirectories(targetDir);
+                }
+                return CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path relativePath = source.relativize(file);
+                visited.add(relativePath);
+
+                Path targetFile = target.resolve(relativePath.toString());
+                if (isUnchanged(attrs, targetFile)) {
+                    return CONTINUE;
+                }
+
+                if (Files.isDirectory(targetFile)) {
+                    FileUtils.deleteDirectory(targetFile.toFile());
+                }
+                Files.copy(file, targetFile, REPLACE_EXISTING, COPY_ATTRIBUTES);
+                copied[0]++;
+                return CONTINUE;
+            }
+        });
+
+        return copied[0];
+    }
+
+    private static boolean isUnchanged(BasicFileAttributes attrs, Path targetFile) throws IOException {
+        if (!Files.isRegularFile(targetFile)) {
+            return false;
+        }
+
+        BasicFileAttributes targetAttrs = Files.readAttributes(targetFile, BasicFileAttributes.class);
+        // copies do not always keep the full precision of the modification time, so compare milliseconds only
+        return attrs.size() == targetAttrs.size()
+            && attrs.lastModifiedTime().toMillis() == targetAttrs.lastModifiedTime().toMillis();
+    }
+
+    private static int deleteUnvisited(Path target, Set<Path> visited) throws IOException {
+        int[] deleted = {0};
+
+        Files.walkFileTree(target, new SimpleFileVisitor<Path>() {
+
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                if (visited.contains(target.relativize(dir))) {
+                    return CONTINUE;
+                }
+
+                FileUtils.deleteDirectory(dir.toFile());
+                deleted[0]++;
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                if (!visited.contains(target.relativize(file))) {
+                    Files.delete(file);
+                    deleted[0]++;
+                }
+                return CONTINUE;
+            }
+        });
+
+        return deleted[0];
+    }
+
+    public void delete() {
+        FileUtils.deleteQuietly(this.directory.toFile());
+    }
+
+    public Path getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Make the target directory equal to the snapshot again.
+     *
+     * @return The number of files that were copied or deleted.
+     */
+    public int restore(Path target) throws IOException {
+        Set<Path> visited = new HashSet<>();
+        int copied = copyChanged(this.directory, target, visited);
+        return copied + deleteUnvisited(target, visited);
+    }
+}
@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of latencies in microseconds with log-linear buckets in the style of HdrHistogram. Values up to
+ * {@value #SUB_BUCKET_COUNT} are recorded exactly, larger values with a relative error of less than 0.1 % (three significant
+ * digits). Values above one hour are recorded as one hour.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 11;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+    private static final long MAX_VALUE = TimeUnit.HOURS.toMicros(1);
+
+    private final AtomicLongArray counts = new AtomicLongArray(getIndex(MAX_VALUE) + 1);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong maxValue = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    private static int getIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return SUB_BUCKET_COUNT + (exponent - SUB_BUCKET_BITS) * SUB_BUCKET_HALF_COUNT + subBucket - SUB_BUCKET_HALF_COUNT;
+    }
+
+    /**
+     * @return The highest value that is recorded in the bucket with the given index.
+     */
+    private static long getHighestEquivalentValue(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+
+        int exponent = SUB_BUCKET_BITS + (index - SUB_BUCKET_COUNT) / SUB_BUCKET_HALF_COUNT;
+        int subBucket = SUB_BUCKET_HALF_COUNT + (index - SUB_BUCKET_COUNT) % SUB_BUCKET_HALF_COUNT;
+        int shift = exponent - (SUB_BUCKET_BITS - 1);
+        return ((long) subBucket << shift) + (1L << shift) - 1;
+    }
+
+    /**
+     * Add all values of the other histogram to this one.
+     */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < other.counts.length(); i++) {
+            long count = other.counts.get(i);
+            if (count != 0) {
+                this.counts.addAndGet(i, count);
+            }
+        }
+
+        this.totalCount.addAndGet(other.totalCount.get());
+        this.sum.addAndGet(other.sum.get());
+        this.maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    public long getMaxValue() {
+        return this.maxValue.get();
+    }
+
+    public double getMean() {
+        long count = this.totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+        return (double) this.sum.get() / count;
+    }
+
+    public long getTotalCount() {
+        return this.totalCount.get();
+    }
+
+    /**
+     * @return The value in microseconds that the given percentage of all recorded values are lower than or equal to.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long count = this.totalCount.get();
+        if (count == 0) {
+            return 0;
+        }
+
+        long targetCount = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * count));
+        long cumulativeCount = 0;
+        for (int i = 0; i < this.counts.length(); i++) {
+            cumulativeCount += this.counts.get(i);
+            if (cumulativeCount >= targetCount) {
+                return Math.min(getHighestEquivalentValue(i), this.maxValue.get());
+            }
+        }
+        return this.maxValue.get();
+    }
+
+    public void recordValue(long micros) {
+        long value = Math.min(Math.max(micros, 0), MAX_VALUE);
+
+        this.counts.incrementAndGet(getIndex(value));
+        this.totalCount.incrementAndGet();
+        this.sum.addAndGet(value);
+        this.maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("count=")
+            .append(this.getTotalCount())
+            .append(", p50=")
+            .append(this.getValueAtPercentile(50))
+            .append(" us, p99=")
+            .append(this.getValueAtPercentile(99))
+            .append(" us, p99.9=")
+            .append(this.getValueAtPercentile(99.9))
+            .append(" us, max=")
+            .append(this.getMaxValue())
+            .append(" us")
+            .toString();
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools.load;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Sends HTTP requests to a running process and records their latencies in a {@link LatencyHistogram}. All requests share one
+ * {@link HttpClient}, so connections are kept alive (HTTP/1.1) or multiplexed (HTTP/2). Create instances with the
+ * {@link LoadDriverBuilder}; each driver runs once.
+ */
+public class LoadDriver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LoadDriver.class);
+
+    private static final int HTTP_CLIENT_ERROR = 400;
+
+    private final List<URI> uris;
+    private final int concurrency;
+    private final int requestsPerSecond;
+    private final int maxOutstandingRequests;
+    private final Duration duration;
+    private final Duration warmup;
+    private final Duration requestTimeout;
+    private final HttpClient httpClient;
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final LatencyHistogram uncorrectedHistogram = new LatencyHistogram();
+    private final AtomicLong errorCount = new AtomicLong();
+    private final AtomicLong requestCount = new AtomicLong();
+
+    protected LoadDriver(List<URI> uris, int concurrency, int requestsPerSecond, int maxOutstandingRequests, Duration duration,
+            Duration warmup, Duration requestTimeout, boolean http2) {
+        this.uris = uris;
+        this.concurrency = concurrency;
+        this.requestsPerSecond = requestsPerSecond;
+        this.maxOutstandingRequests = maxOutstandingRequests;
+        this.duration = duration;
+        this.warmup = warmup;
+        this.requestTimeout = requestTimeout;
+        this.httpClient = HttpClient
+            .newBuilder()
+            .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(requestTimeout)
+            .build();
+    }
+
+    private static void parkUntil(long nanos) {
+        for (long remaining = nanos - System.nanoTime(); remaining > 0; remaining = nanos - System.nanoTime()) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    /**
+     * Run the workload. The calling thread blocks until the warmup and the measurement are over.
+     */
+    public LoadResult run() {
+        long warmupEnd = System.nanoTime() + this.warmup.toNanos();
+        long end = warmupEnd + this.duration.toNanos();
+
+        LOGGER.info("Driving load against {} for {} after a warmup of {}.", this.uris, this.duration, this.warmup);
+        if (this.requestsPerSecond > 0) {
+            this.runOpenModel(warmupEnd, end);
+        } else {
+            this.runClosedModel(warmupEnd, end);
+        }
+
+        LoadResult result = new LoadResult(this.histogram, this.uncorrectedHistogram, this.errorCount.get(), this.duration);
+        LOGGER.info("Load result: {}", result);
+        return result;
+    }
+
+    private HttpRequest nextRequest() {
+        URI uri = this.uris.get((int) (this.requestCount.getAndIncrement() % this.uris.size()));
+        return HttpRequest.newBuilder(uri).timeout(this.requestTimeout).GET().build();
+    }
+
+    private void record(long scheduledNanos, long sentNanos, long warmupEnd, boolean success) {
+        if (scheduledNanos < warmupEnd) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        this.histogram.recordValue(NANOSECONDS.toMicros(now - scheduledNanos));
+        this.uncorrectedHistogram.recordValue(NANOSECONDS.toMicros(now - sentNanos));
+
+        if (!success) {
+            this.errorCount.incrementAndGet();
+        }
+    }
+
+    private void runClosedModel(long warmupEnd, long end) {
+        List<Thread> workers = new ArrayList<>();
+
+        for (int i = 0; i < this.concurrency; i++) {
+            Thread worker = new Thread(() -> {
+                while (System.nanoTime() < end) {
+                    long start = System.nanoTime();
+                    boolean success;
+                    try {
+                        HttpResponse<Void> response = this.httpClient.send(this.nextRequest(), BodyHandlers.discarding());
+                        success = response.statusCode() < HTTP_CLIENT_ERROR;
+                    } catch (IOException e) {
+                        success = false;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (System.nanoTime() > end) {
+                        // completed after the measurement: counting it would inflate the throughput
+                        return;
+                    }
+                    this.record(start, start, warmupEnd, success);
+                }
+            }, "load-driver-" + i);
+            worker.setDaemon(true);
+            worker.start();
+            workers.add(worker);
+        }
+
+        try {
+            for (Thread eachWorker : workers) {
+                eachWorker.join();
+            }
+        } catch (InterruptedException e) {
+            workers.forEach(Thread::interrupt);
+            Thread.currentThread().interrupt();
+            fail("Interrupted while driving load.");
+        }
+    }
+
+    private void runOpenModel(long warmupEnd, long end) {
+        long intervalNanos = 1_000_000_000L / this.requestsPerSecond;
+        long start = System.nanoTime();
+        Semaphore outstandingRequests = new Semaphore(this.maxOutstandingRequests);
+
+        try {
+            for (long i = 0;; i++) {
+                long scheduledNanos = start + i * intervalNanos;
+                if (scheduledNanos >= end) {
+                    break;
+                }
+                parkUntil(scheduledNanos);
+
+                // a request that has to wait for a free slot is late, which the latency from the schedule accounts for
+                outstandingRequests.acquire();
+                long sentNanos = System.nanoTime();
+                this.httpClient.sendAsync(this.nextRequest(), BodyHandlers.discarding()).whenComplete((response, throwable) -> {
+                    boolean success = throwable == null && response.statusCode() < HTTP_CLIENT_ERROR;
+                    this.record(scheduledNanos, sentNanos, warmupEnd, success);
+                    outstandingRequests.release();
+                });
+            }
+
+            if (!outstandingRequests.tryAcquire(this.maxOutstandingRequests, this.requestTimeout.toNanos() * 2, NANOSECONDS)) {
+                LOGGER.warn(
+                    "{} request(s) did not complete in time.",
+                    this.maxOutstandingRequests - outstandingRequests.availablePermits());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            fail("Interrupted while driving load.");
+        }
+    }
+}
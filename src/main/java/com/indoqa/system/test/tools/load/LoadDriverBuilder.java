@@ -0,0 +1,176 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools.load;
+
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.indoqa.system.test.tools.JarRunner;
+
+public class LoadDriverBuilder {
+
+    private static final Duration DEFAULT_DURATION = Duration.ofSeconds(10);
+    private static final Duration DEFAULT_WARMUP = Duration.ofSeconds(2);
+    private static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofSeconds(5);
+    private static final int DEFAULT_CONCURRENCY = 1;
+    private static final int DEFAULT_MAX_OUTSTANDING_REQUESTS = 1000;
+
+    private final String baseUrl;
+    private final List<String> paths = new ArrayList<>();
+    private int concurrency = DEFAULT_CONCURRENCY;
+    private int requestsPerSecond;
+    private int maxOutstandingRequests = DEFAULT_MAX_OUTSTANDING_REQUESTS;
+    private Duration duration = DEFAULT_DURATION;
+    private Duration warmup = DEFAULT_WARMUP;
+    private Duration requestTimeout = DEFAULT_REQUEST_TIMEOUT;
+    private boolean http2;
+
+    public LoadDriverBuilder(String baseUrl) {
+        requireNonNull(baseUrl, "The base URL must not be null.");
+
+        this.baseUrl = baseUrl;
+    }
+
+    /**
+     * Drive the process of the runner via the port reserved under the given name.
+     */
+    public static LoadDriverBuilder forRunner(JarRunner runner, String portName) {
+        requireNonNull(runner, "The runner must not be null.");
+
+        return new LoadDriverBuilder("http://localhost:" + runner.getPort(portName));
+    }
+
+    private static void requireNonNull(Object object, String message) {
+        if (object == null) {
+            fail(message);
+        }
+    }
+
+    /**
+     * Add a path that is requested with GET. Several paths are requested in turn. Defaults to <code>/</code>.
+     */
+    public LoadDriverBuilder addPath(String path) {
+        requireNonNull(path, "The path must not be null.");
+
+        this.paths.add(path);
+        return this;
+    }
+
+    public LoadDriver build() {
+        List<URI> uris = new ArrayList<>();
+        if (this.paths.isEmpty()) {
+            uris.add(URI.create(this.baseUrl));
+        }
+        for (String eachPath : this.paths) {
+            uris.add(URI.create(this.baseUrl).resolve(eachPath));
+        }
+
+        return new LoadDriver(
+            uris,
+            this.concurrency,
+            this.requestsPerSecond,
+            this.maxOutstandingRequests,
+            this.duration,
+            this.warmup,
+            this.requestTimeout,
+            this.http2);
+    }
+
+    /**
+     * Send the next request as soon as the previous one of the same worker has completed (closed model). This is the default
+     * with one worker. The latencies of the closed model are not corrected for coordinated omission: a stalled server also
+     * stalls the workers, so use {@link #setConstantRate(int)} to measure tail latencies.
+     */
+    public LoadDriverBuilder setClosedModel(int concurrency) {
+        if (concurrency <= 0) {
+            fail("The concurrency must be a positive number.");
+        }
+
+        this.concurrency = concurrency;
+        this.requestsPerSecond = 0;
+        return this;
+    }
+
+    /**
+     * Send requests at a constant arrival rate independent of the response times (open model). Latencies are measured from the
+     * time each request was scheduled, which corrects the coordinated omission. At most {@link #setMaxOutstandingRequests(int)}
+     * requests are in flight at the same time; later requests wait for a free slot, which counts towards their latency.
+     */
+    public LoadDriverBuilder setConstantRate(int requestsPerSecond) {
+        if (requestsPerSecond <= 0) {
+            fail("The rate must be a positive number.");
+        }
+
+        this.requestsPerSecond = requestsPerSecond;
+        return this;
+    }
+
+    public LoadDriverBuilder setDurationInSeconds(int seconds) {
+        if (seconds <= 0) {
+            fail("The duration must be a positive number.");
+        }
+
+        this.duration = Duration.ofSeconds(seconds);
+        return this;
+    }
+
+    /**
+     * Limit the requests in flight in the open model, so that a stalled server does not pile up requests in the driver. Defaults
+     * to {@value #DEFAULT_MAX_OUTSTANDING_REQUESTS}.
+     */
+    public LoadDriverBuilder setMaxOutstandingRequests(int maxOutstandingRequests) {
+        if (maxOutstandingRequests <= 0) {
+            fail("The maximum of outstanding requests must be a positive number.");
+        }
+
+        this.maxOutstandingRequests = maxOutstandingRequests;
+        return this;
+    }
+
+    public LoadDriverBuilder setRequestTimeoutInMillis(int millis) {
+        if (millis <= 0) {
+            fail("The request timeout must be a positive number.");
+        }
+
+        this.requestTimeout = Duration.ofMillis(millis);
+        return this;
+    }
+
+    /**
+     * Send requests for the given time before the measurement starts. Defaults to 2 seconds.
+     */
+    public LoadDriverBuilder setWarmupInSeconds(int seconds) {
+        if (seconds < 0) {
+            fail("The warmup must not be negative.");
+        }
+
+        this.warmup = Duration.ofSeconds(seconds);
+        return this;
+    }
+
+    /**
+     * Multiplex all requests over HTTP/2 connections instead of HTTP/1.1 keep-alive connections.
+     */
+    public LoadDriverBuilder useHttp2() {
+        this.http2 = true;
+        return this;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools.load;
+
+import java.time.Duration;
+
+/**
+ * The outcome of a {@link LoadDriver} run. Only requests sent after the warmup are counted.
+ */
+public class LoadResult {
+
+    private final LatencyHistogram histogram;
+    private final LatencyHistogram uncorrectedHistogram;
+    private final long errorCount;
+    private final Duration duration;
+
+    protected LoadResult(LatencyHistogram histogram, LatencyHistogram uncorrectedHistogram, long errorCount, Duration duration) {
+        this.histogram = histogram;
+        this.uncorrectedHistogram = uncorrectedHistogram;
+        this.errorCount = errorCount;
+        this.duration = duration;
+    }
+
+    public Duration getDuration() {
+        return this.duration;
+    }
+
+    public long getErrorCount() {
+        return this.errorCount;
+    }
+
+    /**
+     * @return The ratio of failed requests, between 0 and 1.
+     */
+    public double getErrorRate() {
+        long requestCount = this.getRequestCount();
+        if (requestCount == 0) {
+            return 0;
+        }
+        return (double) this.errorCount / requestCount;
+    }
+
+    /**
+     * @return The latencies corrected for coordinated omission. In the open model every latency is measured from the time the
+     *         request was scheduled, so a stalled server shows up with all the requests that queued up behind it. The closed
+     *         model has no schedule to measure from, so its latencies are the same as the uncorrected ones.
+     */
+    public LatencyHistogram getHistogram() {
+        return this.histogram;
+    }
+
+    public long getRequestCount() {
+        return this.uncorrectedHistogram.getTotalCount();
+    }
+
+    /**
+     * @return The completed requests per second.
+     */
+    public double getThroughput() {
+        if (this.duration.isZero()) {
+            return 0;
+        }
+        return this.getRequestCount() * 1000.0 / this.duration.toMillis();
+    }
+
+    /**
+     * @return The latencies measured from the time each request was actually sent.
+     */
+    public LatencyHistogram getUncorrectedHistogram() {
+        return this.uncorrectedHistogram;
+    }
+
+    @Override
+    public String toString() {
+        return new StringBuilder()
+            .append("requests=")
+            .append(this.getRequestCount())
+            .append(", errors=")
+            .append(this.errorCount)
+            .append(", throughput=")
+            .append(String.format("%.1f", this.getThroughput()))
+            .append("/s, latencies: ")
+            .append(this.histogram)
+            .toString();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Indoqa Software Design und Beratung GmbH (Indoqa) under
+ * one or more contributor license agreements. See the NOTICE file distributed
+ * with this work for additional information regarding copyright ownership.
+ * Indoqa licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.indoqa.system.test.tools.load;
+
+import static org.junit.Assert.fail;
+
+import java.time.Duration;
+
+/**
+ * Fluent assertions on a {@link LoadResult}, e.g.
+ *
+ * <pre>
+ * LoadResultAssert.assertThat(result).p99Below(Duration.ofMillis(50)).throughputAtLeast(1000);
+ * </pre>
+ */
+public final class LoadResultAssert {
+
+    private final LoadResult result;
+
+    private LoadResultAssert(LoadResult result) {
+        this.result = result;
+    }
+
+    public static LoadResultAssert assertThat(LoadResult result) {
+        if (result == null) {
+            fail("The load result must not be null.");
+        }
+
+        return new LoadResultAssert(result);
+    }
+
+    public LoadResultAssert errorRateBelow(double maxErrorRate) {
+        if (this.result.getErrorRate() >= maxErrorRate) {
+            this.failWithResult("The error rate " + this.result.getErrorRate() + " is not below " + maxErrorRate + ".");
+        }
+        return this;
+    }
+
+    public LoadResultAssert p50Below(Duration maxLatency) {
+        return this.percentileBelow(50, maxLatency);
+    }
+
+    public LoadResultAssert p999Below(Duration maxLatency) {
+        return this.percentileBelow(99.9, maxLatency);
+    }
+
+    public LoadResultAssert p99Below(Duration maxLatency) {
+        return this.percentileBelow(99, maxLatency);
+    }
+
+    /**
+     * Check the latency at the given percentile, corrected for coordinated omission.
+     */
+    public LoadResultAssert percentileBelow(double percentile, Duration maxLatency) {
+        long latencyMicros = this.result.getHistogram().getValueAtPercentile(percentile);
+        long maxLatencyMicros = maxLatency.toNanos() / 1000;
+
+        if (latencyMicros >= maxLatencyMicros) {
+            this.failWithResult(
+                "The p" + percentile + " latency of " + latencyMicros + " us is not below " + maxLatencyMicros + " us.");
+        }
+        return this;
+    }
+
+    public LoadResultAssert throughputAtLeast(double requestsPerSecond) {
+        if (this.result.getThroughput() < requestsPerSecond) {
+            this.failWithResult(
+                "The throughput of " + this.result.getThroughput() + " requests/s is lower than " + requestsPerSecond + ".");
+        }
+        return this;
+    }
+
+    private void failWithResult(String message) {
+        fail(message + " Result: " + this.result);
+    }
+}